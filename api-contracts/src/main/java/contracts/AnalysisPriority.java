@@ -0,0 +1,18 @@
+package contracts;
+
+/**
+ * Класс приоритета анализа, который gateway передает сервису анализа в заголовке {@link #HEADER}.
+ */
+public final class AnalysisPriority {
+
+    public static final String HEADER = "X-Analysis-Priority";
+
+    /** Проверка одной работы по запросу пользователя: ждет ответа. */
+    public static final String INTERACTIVE = "interactive";
+
+    /** Фоновая проверка, например после загрузки: может подождать. */
+    public static final String BULK = "bulk";
+
+    private AnalysisPriority() {
+    }
+}
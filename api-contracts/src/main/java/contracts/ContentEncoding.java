@@ -0,0 +1,45 @@
+package contracts;
+
+/**
+ * Кодировки содержимого файлов, которыми обмениваются сервисы (заголовок Content-Encoding).
+ */
+public final class ContentEncoding {
+
+    public static final String IDENTITY = "identity";
+    public static final String GZIP = "gzip";
+
+    private ContentEncoding() {
+    }
+
+    /**
+     * Принимает ли клиент gzip по заголовку Accept-Encoding. Явная запись "gzip" важнее "*",
+     * нулевой вес ("gzip;q=0", "*; Q = 0.0") означает отказ.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String coding = parts[0].trim();
+            if (coding.equalsIgnoreCase(GZIP)) {
+                return !hasZeroWeight(parts);
+            }
+            if (coding.equals("*") && wildcard == null) {
+                wildcard = !hasZeroWeight(parts);
+            }
+        }
+        return wildcard != null && wildcard;
+    }
+
+    private static boolean hasZeroWeight(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String[] param = parts[i].split("=", 2);
+            if (param.length == 2 && param[0].trim().equalsIgnoreCase("q")) {
+                return param[1].trim().matches("0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,14 @@
+package contracts;
+
+import java.time.LocalDateTime;
+
+/**
+ * Работа, сохраненная сервисом хранения. Ответ на загрузку файла.
+ */
+public record WorkInfo(
+    long id,
+    String studentName,
+    String assignmentName,
+    String filePath,
+    LocalDateTime uploadedAt
+) {}
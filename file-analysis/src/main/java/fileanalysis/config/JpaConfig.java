@@ -5,6 +5,7 @@ import java.util.Properties;
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
@@ -25,16 +26,30 @@ public class JpaConfig {
     
     @Autowired
     private DataSource dataSource;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:update}")
+    private String ddlAuto;
+
+    // false при обучающем запуске для CDS-архива: Hibernate не подключается к БД при старте
+    @Value("${spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access:true}")
+    private String allowJdbcMetadataAccess;
+
+    // Конвейер анализа сохраняет отчеты пачками: saveAll уходит в БД batch-вставками
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:64}")
+    private String jdbcBatchSize;
     
     @Bean
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource);
-        em.setPackagesToScan("fileanalysis.entity", "filestoring.entity");
+        em.setPackagesToScan("fileanalysis.entity");
         em.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
         
         Properties properties = new Properties();
-        properties.setProperty("hibernate.hbm2ddl.auto", "update");
+        properties.setProperty("hibernate.hbm2ddl.auto", ddlAuto);
+        properties.setProperty("hibernate.boot.allow_jdbc_metadata_access", allowJdbcMetadataAccess);
+        properties.setProperty("hibernate.jdbc.batch_size", jdbcBatchSize);
+        properties.setProperty("hibernate.order_inserts", "true");
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
         em.setJpaProperties(properties);
         
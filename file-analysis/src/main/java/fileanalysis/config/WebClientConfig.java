@@ -2,15 +2,21 @@ package fileanalysis.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import reactor.netty.http.client.HttpClient;
+
 @Configuration
 public class WebClientConfig {
     @Bean
     public WebClient webClient(){
-        return WebClient.builder().build();
+        // Accept-Encoding: gzip и распаковка ответа: сервис хранения отдает тексты сжатыми
+        return WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create().compress(true)))
+            .build();
     }
     
     @Bean
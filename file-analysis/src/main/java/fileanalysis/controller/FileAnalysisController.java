@@ -1,6 +1,9 @@
 package fileanalysis.controller;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -8,10 +11,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import contracts.AnalysisPriority;
 import fileanalysis.entity.Analysis;
+import fileanalysis.scheduler.PriorityClass;
+import fileanalysis.scheduler.QueueWaitStats;
+import fileanalysis.service.AnalysisPipeline;
 import fileanalysis.service.FileAnalysisService;
 
 
@@ -20,9 +28,11 @@ import fileanalysis.service.FileAnalysisService;
 @RequestMapping("/reports")
 public class FileAnalysisController {
     private final FileAnalysisService fileAnalysisService;
+    private final AnalysisPipeline analysisPipeline;
 
-    public FileAnalysisController(FileAnalysisService fileAnalysisService) {
+    public FileAnalysisController(FileAnalysisService fileAnalysisService, AnalysisPipeline analysisPipeline) {
         this.fileAnalysisService = fileAnalysisService;
+        this.analysisPipeline = analysisPipeline;
     }
 
     @GetMapping("/{workId}")
@@ -36,15 +46,27 @@ public class FileAnalysisController {
     }
 
     @PostMapping("/analyze/{workId}")
-    public ResponseEntity<Analysis> postAnalyseReports(@PathVariable Long workId) {
+    public ResponseEntity<Analysis> postAnalyseReports(@PathVariable Long workId,
+            @RequestHeader(value = AnalysisPriority.HEADER, required = false) String priority) {
         try {
-            Analysis analysis = fileAnalysisService.analyzeFile(workId);
+            Analysis analysis = analysisPipeline.submit(workId, PriorityClass.fromHeader(priority)).join();
             return ResponseEntity.ok(analysis);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                return ResponseEntity.status(503).build();
+            }
+            System.err.println("Ошибка при анализе workId=" + workId + ": " + e.getCause().getMessage());
+            return ResponseEntity.status(500).build();
         } catch (Exception e) {
             return ResponseEntity.status(500).build();
         }
     }
 
+    @GetMapping("/scheduler/stats")
+    public ResponseEntity<Map<PriorityClass, QueueWaitStats.Snapshot>> getSchedulerStats() {
+        return ResponseEntity.ok(analysisPipeline.getSchedulerStats());
+    }
+
     @GetMapping("/{workId}/wordcloud")
     public ResponseEntity<byte[]> getWordCloud(@PathVariable Long workId) {
         try {
@@ -4,13 +4,10 @@ import java.time.LocalDateTime;
 
 import org.hibernate.annotations.CreationTimestamp;
 
-import filestoring.entity.Work;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
-import jakarta.persistence.JoinColumn;
-import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -24,9 +21,9 @@ public class Analysis {
     @GeneratedValue
     private Long id;
 
-    @ManyToOne
-    @JoinColumn(name="work_id", nullable = false)
-    private Work work;
+    // Ссылка на работу из сервиса хранения только по ID: схемы сервисов не связаны
+    @Column(name="work_id", nullable = false)
+    private Long workId;
 
     @Column(name="plagiarism_detected", nullable = false)
     private Boolean plagiarismDetected;
@@ -1,5 +1,6 @@
 package fileanalysis.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,7 +10,7 @@ import fileanalysis.entity.Analysis;
 
 @Repository
 public interface AnalysisRepository extends JpaRepository<Analysis, Long> {
-    List<Analysis> findByWork_Id(Long workId);
+    List<Analysis> findByWorkId(Long workId);
     
-    List<Analysis> findByFileHash(String fileHash);
+    List<Analysis> findByFileHashIn(Collection<String> fileHashes);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package fileanalysis.scheduler;
+
+import contracts.AnalysisPriority;
+
+public enum PriorityClass {
+    INTERACTIVE,
+    BULK;
+
+    /** Класс по заголовку {@link AnalysisPriority#HEADER}; без заголовка запрос считается интерактивным. */
+    public static PriorityClass fromHeader(String value) {
+        return AnalysisPriority.BULK.equalsIgnoreCase(value) ? BULK : INTERACTIVE;
+    }
+}
@@ -0,0 +1,50 @@
+package fileanalysis.scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Время ожидания в очереди для одного класса: счетчики за все время
+ * и перцентили по последним {@link #WINDOW} задачам.
+ */
+public class QueueWaitStats {
+
+    private static final int WINDOW = 1024;
+
+    private final long[] recent = new long[WINDOW];
+    private long dispatched;
+    private long rejected;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    public synchronized void recordWait(long waitNanos) {
+        recent[(int) (dispatched % WINDOW)] = waitNanos;
+        dispatched++;
+        totalWaitNanos += waitNanos;
+        maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+    }
+
+    public synchronized void recordRejected() {
+        rejected++;
+    }
+
+    public synchronized Snapshot snapshot(int queued) {
+        int count = (int) Math.min(dispatched, WINDOW);
+        long[] sorted = Arrays.copyOf(recent, count);
+        Arrays.sort(sorted);
+        return new Snapshot(queued, dispatched, rejected,
+            dispatched == 0 ? 0 : totalWaitNanos / dispatched / 1e6,
+            percentile(sorted, 0.50), percentile(sorted, 0.99), maxWaitNanos / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    public record Snapshot(int queued, long dispatched, long rejected, double avgWaitMillis,
+                           double p50WaitMillis, double p99WaitMillis, double maxWaitMillis) {
+    }
+}
@@ -0,0 +1,109 @@
+package fileanalysis.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Очередь с взвешенным справедливым обслуживанием классов (deficit round robin).
+ * За один проход класс получает до {@code weight} элементов, поэтому при весах 8:1
+ * интерактивные задачи обгоняют фоновые, а фоновые все равно продвигаются.
+ * У каждого класса своя ограниченная очередь: переполнение фонового класса
+ * не мешает ставить интерактивные задачи.
+ */
+public class WeightedFairQueue<T> {
+
+    private final Map<PriorityClass, Lane<T>> lanes = new EnumMap<>(PriorityClass.class);
+    private final PriorityClass[] order = PriorityClass.values();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private int current;
+    private int size;
+
+    public WeightedFairQueue(Map<PriorityClass, Integer> weights, int capacityPerClass) {
+        for (PriorityClass priorityClass : order) {
+            lanes.put(priorityClass, new Lane<>(Math.max(1, weights.getOrDefault(priorityClass, 1)), capacityPerClass));
+        }
+    }
+
+    public boolean offer(PriorityClass priorityClass, T item) {
+        lock.lock();
+        try {
+            Lane<T> lane = lanes.get(priorityClass);
+            if (lane.items.size() >= lane.capacity) {
+                return false;
+            }
+            lane.items.addLast(item);
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            while (true) {
+                Lane<T> lane = lanes.get(order[current]);
+                if (!lane.items.isEmpty()) {
+                    if (lane.deficit == 0) {
+                        lane.deficit = lane.weight;
+                    }
+                    lane.deficit--;
+                    size--;
+                    T item = lane.items.pollFirst();
+                    if (lane.deficit == 0 || lane.items.isEmpty()) {
+                        // Ход класса закончен; опустевший класс не копит кредит на будущее
+                        lane.deficit = 0;
+                        current = (current + 1) % order.length;
+                    }
+                    return item;
+                }
+                current = (current + 1) % order.length;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            lanes.values().forEach(lane -> {
+                lane.items.clear();
+                lane.deficit = 0;
+            });
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size(PriorityClass priorityClass) {
+        lock.lock();
+        try {
+            return lanes.get(priorityClass).items.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Lane<T> {
+        private final ArrayDeque<T> items = new ArrayDeque<>();
+        private final int weight;
+        private final int capacity;
+        private int deficit;
+
+        Lane(int weight, int capacity) {
+            this.weight = weight;
+            this.capacity = capacity;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package fileanalysis.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import fileanalysis.entity.Analysis;
+import fileanalysis.repository.AnalysisRepository;
+import fileanalysis.scheduler.PriorityClass;
+import fileanalysis.scheduler.QueueWaitStats;
+import fileanalysis.scheduler.WeightedFairQueue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Конвейер анализа работ. Этапы работают одновременно и связаны ограниченными очередями:
+ * <ol>
+ *     <li>загрузка и хеширование: текст хешируется по мере прихода из сети,
+ *     несколько работ обрабатываются параллельно на виртуальных потоках;</li>
+ *     <li>поиск дубликатов: один запрос {@code file_hash in (...)} на пачку работ;</li>
+ *     <li>сохранение: отчеты пачки записываются одним {@code saveAll}.</li>
+ * </ol>
+ * Задержка одной работы близка к времени самого медленного этапа, а не к их сумме.
+ * Входная очередь взвешенно-справедливая: интерактивные проверки проходят вперед фоновых.
+ */
+@Service
+public class AnalysisPipeline {
+
+    private final FileAnalysisService fileAnalysisService;
+    private final AnalysisRepository analysisRepository;
+
+    @Value("${analysis.pipeline.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${analysis.pipeline.fetch-concurrency:16}")
+    private int fetchConcurrency;
+
+    @Value("${analysis.pipeline.batch-size:64}")
+    private int batchSize;
+
+    @Value("${analysis.scheduler.interactive-weight:8}")
+    private int interactiveWeight;
+
+    @Value("${analysis.scheduler.bulk-weight:1}")
+    private int bulkWeight;
+
+    private WeightedFairQueue<Job> intake;
+    private final Map<PriorityClass, QueueWaitStats> waitStats = new EnumMap<>(PriorityClass.class);
+    private BlockingQueue<Job> hashed;
+    private BlockingQueue<Job> decided;
+    private Semaphore fetchPermits;
+    private ExecutorService fetchExecutor;
+    private final List<Thread> stages = new ArrayList<>();
+
+    // Хеши работ, которые уже прошли поиск, но еще не сохранены: иначе две одинаковые
+    // работы, пришедшие почти одновременно, не увидели бы друг друга в БД
+    private final Map<String, Long> pendingHashes = new ConcurrentHashMap<>();
+
+    // Все принятые и еще не завершенные задачи, где бы они ни находились: при остановке их ждут контроллеры
+    private final Set<Job> active = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopped;
+
+    public AnalysisPipeline(FileAnalysisService fileAnalysisService, AnalysisRepository analysisRepository) {
+        this.fileAnalysisService = fileAnalysisService;
+        this.analysisRepository = analysisRepository;
+    }
+
+    @PostConstruct
+    public void start() {
+        intake = new WeightedFairQueue<>(
+            Map.of(PriorityClass.INTERACTIVE, interactiveWeight, PriorityClass.BULK, bulkWeight), queueCapacity);
+        for (PriorityClass priorityClass : PriorityClass.values()) {
+            waitStats.put(priorityClass, new QueueWaitStats());
+        }
+        hashed = new ArrayBlockingQueue<>(queueCapacity);
+        decided = new ArrayBlockingQueue<>(queueCapacity);
+        fetchPermits = new Semaphore(fetchConcurrency);
+        fetchExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("analysis-fetch-", 0).factory());
+
+        stages.add(Thread.ofVirtual().name("analysis-dispatch").start(this::dispatchLoop));
+        stages.add(Thread.ofVirtual().name("analysis-lookup").start(this::lookupLoop));
+        stages.add(Thread.ofVirtual().name("analysis-persist").start(this::persistLoop));
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        stages.forEach(Thread::interrupt);
+        fetchExecutor.shutdownNow();
+        intake.clear();
+        hashed.clear();
+        decided.clear();
+        RejectedExecutionException shutdown = new RejectedExecutionException("Сервис анализа останавливается");
+        for (Job job : active) {
+            job.result.completeExceptionally(shutdown);
+        }
+    }
+
+    /**
+     * Ставит работу в очередь своего класса. Если очередь класса заполнена, результат сразу
+     * завершается с {@link RejectedExecutionException}.
+     */
+    public CompletableFuture<Analysis> submit(Long workId, PriorityClass priorityClass) {
+        Job job = new Job(workId, priorityClass);
+        active.add(job);
+        job.result.whenComplete((analysis, error) -> active.remove(job));
+        if (!intake.offer(priorityClass, job)) {
+            waitStats.get(priorityClass).recordRejected();
+            job.result.completeExceptionally(new RejectedExecutionException("Очередь анализа переполнена"));
+        }
+        // Проверка после постановки: либо stop() увидит задачу в active, либо здесь видно stopped
+        if (stopped) {
+            job.result.completeExceptionally(new RejectedExecutionException("Сервис анализа останавливается"));
+        }
+        return job.result;
+    }
+
+    /**
+     * Время ожидания в очереди (до начала загрузки) по классам.
+     */
+    public Map<PriorityClass, QueueWaitStats.Snapshot> getSchedulerStats() {
+        Map<PriorityClass, QueueWaitStats.Snapshot> result = new EnumMap<>(PriorityClass.class);
+        waitStats.forEach((priorityClass, stats) -> result.put(priorityClass, stats.snapshot(intake.size(priorityClass))));
+        return result;
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (true) {
+                // Сначала место на этапе загрузки, потом выбор задачи: пока ждем место,
+                // пришедшая интерактивная задача еще может обогнать фоновые
+                fetchPermits.acquire();
+                Job job;
+                try {
+                    job = intake.take();
+                } catch (InterruptedException e) {
+                    fetchPermits.release();
+                    throw e;
+                }
+                waitStats.get(job.priorityClass).recordWait(System.nanoTime() - job.enqueuedAt);
+                try {
+                    fetchExecutor.execute(() -> fetchAndHash(job));
+                } catch (RejectedExecutionException e) {
+                    fetchPermits.release();
+                    job.result.completeExceptionally(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fetchAndHash(Job job) {
+        try {
+            job.fileHash = fileAnalysisService.hashText(job.workId);
+            hashed.put(job);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.result.completeExceptionally(e);
+        } catch (Exception e) {
+            job.result.completeExceptionally(e);
+        } finally {
+            fetchPermits.release();
+        }
+    }
+
+    private void lookupLoop() {
+        try {
+            while (true) {
+                List<Job> batch = takeBatch(hashed);
+                try {
+                    lookup(batch);
+                } catch (Exception e) {
+                    batch.forEach(job -> job.result.completeExceptionally(e));
+                    continue;
+                }
+                for (Job job : batch) {
+                    decided.put(job);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void lookup(List<Job> batch) {
+        Set<String> hashes = new LinkedHashSet<>();
+        batch.forEach(job -> hashes.add(job.fileHash));
+
+        // Снимок берется до запроса: работа, сохраненная во время запроса, есть либо здесь, либо в ответе БД
+        Map<String, Long> pendingBefore = new HashMap<>();
+        for (String hash : hashes) {
+            Long pendingWorkId = pendingHashes.get(hash);
+            if (pendingWorkId != null) {
+                pendingBefore.put(hash, pendingWorkId);
+            }
+        }
+
+        Map<String, List<Long>> existing = new HashMap<>();
+        for (Analysis report : analysisRepository.findByFileHashIn(hashes)) {
+            existing.computeIfAbsent(report.getFileHash(), hash -> new ArrayList<>()).add(report.getWorkId());
+        }
+
+        for (Job job : batch) {
+            Long duplicateWorkId = null;
+            for (Long existingWorkId : existing.getOrDefault(job.fileHash, List.of())) {
+                if (!existingWorkId.equals(job.workId)) {
+                    duplicateWorkId = existingWorkId;
+                    break;
+                }
+            }
+            if (duplicateWorkId == null) {
+                Long pendingWorkId = pendingBefore.getOrDefault(job.fileHash, pendingHashes.get(job.fileHash));
+                if (pendingWorkId != null && !pendingWorkId.equals(job.workId)) {
+                    duplicateWorkId = pendingWorkId;
+                }
+            }
+            job.pending = pendingHashes.putIfAbsent(job.fileHash, job.workId) == null;
+
+            job.plagiarismDetected = duplicateWorkId != null;
+            job.details = duplicateWorkId != null ? "Найден дубликат файла в работе ID: " + duplicateWorkId : null;
+        }
+    }
+
+    private void persistLoop() {
+        try {
+            while (true) {
+                List<Job> batch = takeBatch(decided);
+                List<Analysis> analyses = new ArrayList<>(batch.size());
+                for (Job job : batch) {
+                    Analysis analysis = new Analysis();
+                    analysis.setWorkId(job.workId);
+                    analysis.setPlagiarismDetected(job.plagiarismDetected);
+                    analysis.setFileHash(job.fileHash);
+                    analysis.setDetails(job.details);
+                    analyses.add(analysis);
+                }
+                List<Analysis> saved;
+                try {
+                    saved = analysisRepository.saveAll(analyses);
+                } catch (Exception e) {
+                    releasePending(batch);
+                    batch.forEach(job -> job.result.completeExceptionally(e));
+                    continue;
+                }
+                // Только после коммита: до этого момента дубликат виден лишь через pendingHashes.
+                // И до ответа вызывающему, чтобы его следующая работа уже не нашла этот хеш в pendingHashes
+                releasePending(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result.complete(saved.get(i));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void releasePending(List<Job> batch) {
+        for (Job job : batch) {
+            if (job.pending) {
+                pendingHashes.remove(job.fileHash, job.workId);
+            }
+        }
+    }
+
+    // Ждет первый элемент и забирает все, что уже накопилось, но не больше batchSize
+    private List<Job> takeBatch(BlockingQueue<Job> queue) throws InterruptedException {
+        List<Job> batch = new ArrayList<>(batchSize);
+        batch.add(queue.take());
+        queue.drainTo(batch, batchSize - 1);
+        return batch;
+    }
+
+    private static final class Job {
+        private final Long workId;
+        private final PriorityClass priorityClass;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Analysis> result = new CompletableFuture<>();
+        private String fileHash;
+        private boolean plagiarismDetected;
+        private String details;
+        private boolean pending;
+
+        Job(Long workId, PriorityClass priorityClass) {
+            this.workId = workId;
+            this.priorityClass = priorityClass;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package fileanalysis.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fileanalysis.entity.Analysis;
+import fileanalysis.repository.AnalysisRepository;
+
+import reactor.core.publisher.Flux;
+
+@Service
+public class FileAnalysisService {
+
+    // Сколько буферов запрашивать у сети вперед, пока хешер обрабатывает текущие
+    private static final int STREAM_DEMAND = 16;
+
+    // Сколько байт начала текста запоминать для повторного определения кодировки
+    private static final int RECORDING_LIMIT = 64 * 1024;
+    
+    private final AnalysisRepository analysisRepository;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final TextNormalizer textNormalizer;
+    
+    @Value("${file.storing.service.url}")
+    private String fileStoringServiceUrl;
+    
+    public FileAnalysisService(AnalysisRepository analysisRepository, WebClient webClient, ObjectMapper objectMapper,
+                               TextNormalizer textNormalizer) {
+        this.analysisRepository = analysisRepository;
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+        this.textNormalizer = textNormalizer;
+    }
+
+    /**
+     * Текст работы, извлеченный сервисом хранения (для .docx, .odt, .pdf),
+     * либо исходный файл для текстовых форматов.
+     */
+    public byte[] readTextAsBytes(Long workId) throws IOException {
+        return readBytes(workId, "/text");
+    }
+
+    private byte[] readBytes(Long workId, String suffix) throws IOException {
+        Resource resource = webClient.get()
+            .uri(fileStoringServiceUrl + "/files/" + workId + suffix)
+            .retrieve()
+            .bodyToMono(Resource.class)
+            .block();
+        
+        if (resource == null || !resource.exists()) {
+            throw new IOException("Файл не найден для workId: " + workId);
+        }
+        
+        try (InputStream inputStream = resource.getInputStream()) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    /**
+     * Текст работы потоком: байты доступны по мере прихода чанков из сети,
+     * поэтому хеширование идет параллельно с загрузкой.
+     */
+    public InputStream openTextStream(Long workId) {
+        Flux<DataBuffer> body = webClient.get()
+            .uri(fileStoringServiceUrl + "/files/" + workId + "/text")
+            .retrieve()
+            .bodyToFlux(DataBuffer.class);
+        return DataBufferUtils.subscriberInputStream(body, STREAM_DEMAND);
+    }
+
+    public String hashString(byte[] fileBytes) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hashBytes = md.digest(fileBytes);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : hashBytes) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка при вычислении хеша", e);
+        }
+    }
+
+    /**
+     * Хеш нормализованного текста: кодировка, BOM, переводы строк, невидимые символы
+     * и подмена букв похожими не меняют результат.
+     */
+    public String hashNormalized(byte[] fileBytes) throws IOException {
+        if (!textNormalizer.isEnabled()) {
+            return hashString(fileBytes);
+        }
+        try {
+            DigestAppendable digest = new DigestAppendable(MessageDigest.getInstance("SHA-256"));
+            try (Reader reader = textNormalizer.openReader(fileBytes)) {
+                textNormalizer.normalize(reader, digest);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Ошибка при вычислении хеша", e);
+        }
+    }
+
+    /**
+     * То же, что {@link #hashNormalized(byte[])} для текста работы, но по потоку: текст
+     * нормализуется и хешируется по мере прихода из сети и целиком в памяти не хранится.
+     * Для текста не в UTF-8 (windows-1251 без BOM) кодировку можно определить только
+     * по всем байтам: если начало текста еще запомнено, дочитываем его, иначе загружаем текст заново.
+     */
+    public String hashText(Long workId) throws IOException {
+        try (InputStream in = openTextStream(workId)) {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            if (!textNormalizer.isEnabled()) {
+                new DigestInputStream(in, md).transferTo(OutputStream.nullOutputStream());
+                return HexFormat.of().formatHex(md.digest());
+            }
+            RecordingInputStream recorded = new RecordingInputStream(in, RECORDING_LIMIT);
+            DigestAppendable digest = new DigestAppendable(md);
+            try {
+                textNormalizer.normalize(textNormalizer.openStreamingReader(recorded), digest);
+            } catch (CharacterCodingException e) {
+                if (!recorded.isOverflowed()) {
+                    recorded.transferTo(OutputStream.nullOutputStream());
+                }
+                if (!recorded.isOverflowed()) {
+                    return hashNormalized(recorded.recordedBytes());
+                }
+                in.close();
+                return hashNormalized(readTextAsBytes(workId));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Ошибка при вычислении хеша", e);
+        }
+    }
+
+    public List<Analysis> getReportsByWorkId(Long workId) {
+        return analysisRepository.findByWorkId(workId);
+    }
+
+    public String readFileAsText(Long workId) throws IOException {
+        byte[] fileBytes = readTextAsBytes(workId);
+        try (Reader reader = textNormalizer.openReader(fileBytes)) {
+            StringWriter text = new StringWriter(fileBytes.length);
+            reader.transferTo(text);
+            return text.toString();
+        }
+    }
+
+    private Map<String, Integer> extractWordFrequencies(String text) {
+        Map<String, Integer> wordFreq = new HashMap<>();
+        
+        if (text == null || text.trim().isEmpty()) {
+            return wordFreq;
+        }
+
+        String cleanedText = text.toLowerCase()
+            .replaceAll("[^\\p{IsCyrillic}\\p{IsLatin}\\s]", " ")
+            .replaceAll("\\s+", " ")
+            .trim();
+        
+        if (cleanedText.isEmpty()) {
+            return wordFreq;
+        }
+        
+        String[] words = cleanedText.split("\\s+");
+        
+        String[] stopWords = {"и", "в", "на", "с", "по", "для", "от", "до", "из", "к", "о", "а", "как", "что", 
+                              "the", "a", "an", "and", "or", "but", "in", "on", "at", "to", "for", "of", "with"};
+        
+        for (String word : words) {
+            word = word.trim();
+            if (word.length() >= 3 && !isStopWord(word, stopWords)) {
+                wordFreq.put(word, wordFreq.getOrDefault(word, 0) + 1);
+            }
+        }
+        
+        return wordFreq;
+    }
+
+    private boolean isStopWord(String word, String[] stopWords) {
+        for (String stopWord : stopWords) {
+            if (word.equals(stopWord)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String generateWordCloudText(Long workId) throws IOException {
+        String text = readFileAsText(workId);
+        Map<String, Integer> wordFreq = extractWordFrequencies(text);
+        
+        if (wordFreq.isEmpty()) {
+            throw new IOException("Недостаточно слов для генерации облака слов.");
+        }
+        
+        List<Map.Entry<String, Integer>> sortedWords = wordFreq.entrySet().stream()
+            .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
+            .limit(50)
+            .collect(Collectors.toList());
+
+        // Формируем строку для QuickChart wordCloud API: "word1:count1,word2:count2"
+        String wordCloudText = sortedWords.stream()
+            .map(entry -> entry.getKey() + ":" + entry.getValue())
+            .collect(Collectors.joining(","));
+        
+        return wordCloudText;
+    }
+
+    public byte[] getWordCloudImage(Long workId) throws IOException {
+        String wordCloudText = generateWordCloudText(workId);
+        
+        try {
+            // Формируем URL для QuickChart wordCloud API
+            // Формат: https://quickchart.io/wordcloud?text=word1:count1,word2:count2&format=png&width=800&height=400
+            String encodedText = java.net.URLEncoder.encode(wordCloudText, StandardCharsets.UTF_8);
+            String url = String.format(
+                "https://quickchart.io/wordcloud?text=%s&format=png&width=800&height=400&backgroundColor=white",
+                encodedText
+            );
+            
+            byte[] imageBytes = webClient.get()
+                .uri(URI.create(url))
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .block();
+            
+            if (imageBytes == null || imageBytes.length == 0) {
+                throw new IOException("Не удалось получить изображение облака слов: пустой ответ");
+            }
+            
+            // Проверяем, что это действительно PNG (начинается с PNG signature)
+            if (imageBytes.length >= 8 && 
+                imageBytes[0] == (byte)0x89 && imageBytes[1] == 'P' && 
+                imageBytes[2] == 'N' && imageBytes[3] == 'G') {
+                return imageBytes;
+            }
+            
+            throw new IOException("Не удалось получить изображение облака слов: неверный формат ответа");
+        } catch (WebClientResponseException e) {
+            String errorBody = e.getResponseBodyAsString();
+            throw new IOException("Ошибка QuickChart API: " + e.getStatusCode() + " body: " + 
+                (errorBody != null && errorBody.length() > 200 ? errorBody.substring(0, 200) : errorBody), e);
+        } catch (Exception e) {
+            throw new IOException("Не удалось получить изображение облака слов: " + e.getMessage(), e);
+        }
+    }
+
+    // Запоминает первые прочитанные байты на случай, если кодировку придется определять заново
+    private static final class RecordingInputStream extends FilterInputStream {
+        private final ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+        private final int limit;
+        private boolean overflowed;
+
+        RecordingInputStream(InputStream in, int limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && hasRoom(1)) {
+                recorded.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0 && hasRoom(count)) {
+                recorded.write(buffer, offset, count);
+            }
+            return count;
+        }
+
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            // После переполнения дочитывать незачем: текст все равно будет загружен заново
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int count;
+            while (!overflowed && (count = read(buffer, 0, buffer.length)) != -1) {
+                out.write(buffer, 0, count);
+                total += count;
+            }
+            return total;
+        }
+
+        // Дальше предела байты не копятся: такой текст придется загрузить заново
+        private boolean hasRoom(int count) {
+            if (!overflowed && recorded.size() + count > limit) {
+                overflowed = true;
+                recorded.reset();
+            }
+            return !overflowed;
+        }
+
+        boolean isOverflowed() {
+            return overflowed;
+        }
+
+        byte[] recordedBytes() {
+            return recorded.toByteArray();
+        }
+    }
+
+    // Кодирует нормализованный текст в UTF-8 и передает байты в MessageDigest без промежуточных строк
+    private static final class DigestAppendable implements Appendable {
+        private final MessageDigest md;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+        private char pendingHigh;
+
+        DigestAppendable(MessageDigest md) {
+            this.md = md;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            if (buffer.length - position < 4) {
+                flush();
+            }
+            if (pendingHigh != 0) {
+                int codePoint = Character.toCodePoint(pendingHigh, c);
+                pendingHigh = 0;
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                pendingHigh = c;
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+            return this;
+        }
+
+        byte[] digest() {
+            flush();
+            return md.digest();
+        }
+
+        private void flush() {
+            md.update(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package fileanalysis.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Нормализация текста перед вычислением отпечатка.
+ * Работает за один проход по символам: NFKC-свертка с удалением диакритики,
+ * удаление невидимых символов, нижний регистр, свертка похожих букв
+ * кириллицы и латиницы, схлопывание пробелов и пунктуации и (опционально) стемминг.
+ */
+@Component
+public class TextNormalizer {
+
+    private static final Charset WINDOWS_1251 = Charset.forName("windows-1251");
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private static final char COMBINING_BREVE = '\u0306';
+
+    // Пары визуально одинаковых букв: кириллица -> латиница (в нижнем регистре,
+    // включая буквы, у которых совпадают только заглавные: В/B, Н/H, М/M, Т/T, К/K)
+    private static final String CYRILLIC_CONFUSABLES = "авекмнорстухіјѕԁԛԝ";
+    private static final String LATIN_CONFUSABLES    = "abekmhopctyxijsdqw";
+
+    private static final char[] CYRILLIC_TO_LATIN = new char[0x530];
+    private static final char[] LATIN_TO_CYRILLIC = new char[0x80];
+
+    static {
+        for (int i = 0; i < CYRILLIC_CONFUSABLES.length(); i++) {
+            CYRILLIC_TO_LATIN[CYRILLIC_CONFUSABLES.charAt(i)] = LATIN_CONFUSABLES.charAt(i);
+            LATIN_TO_CYRILLIC[LATIN_CONFUSABLES.charAt(i)] = CYRILLIC_CONFUSABLES.charAt(i);
+        }
+    }
+
+    // Окончания отсортированы по убыванию длины, снимается самое длинное подходящее
+    private static final char[][] RUSSIAN_SUFFIXES = suffixes(
+        "ениями", "ования", "ование",
+        "иями", "ений", "ение", "ость", "ости", "ться", "ющий", "ящий", "ивши", "ывши",
+        "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "ая", "яя", "ое", "ее",
+        "ой", "ый", "ий", "ые", "ие", "ых", "их", "ую", "юю", "ом", "ем", "ах", "ях",
+        "ов", "ев", "ей", "ть", "ет", "ит", "ут", "ют", "ат", "ят", "ил", "ыл", "ла",
+        "ли", "ло", "ся", "сь",
+        "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й");
+
+    private static final char[][] ENGLISH_SUFFIXES = suffixes(
+        "ational", "ations", "ation", "ments", "ment", "ness", "ings", "ing", "ies",
+        "ied", "ers", "ed", "es", "ly", "er", "s");
+
+    private static final String[] DECOMPOSITION_CACHE = new String[0x10000];
+
+    @Value("${text.normalization.enabled:true}")
+    private boolean enabled;
+
+    @Value("${text.normalization.stemming:false}")
+    private boolean stemming;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Открывает поток символов над байтами файла: учитывает BOM (UTF-8, UTF-16),
+     * а для текста без BOM, который не является корректным UTF-8, использует windows-1251.
+     */
+    public Reader openReader(byte[] bytes) {
+        int length = bytes.length;
+        if (length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
+            return reader(bytes, 3, StandardCharsets.UTF_8);
+        }
+        if (length >= 2 && (bytes[0] & 0xFF) == 0xFE && (bytes[1] & 0xFF) == 0xFF) {
+            return reader(bytes, 2, StandardCharsets.UTF_16BE);
+        }
+        if (length >= 2 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xFE) {
+            return reader(bytes, 2, StandardCharsets.UTF_16LE);
+        }
+        return reader(bytes, 0, isValidUtf8(bytes) ? StandardCharsets.UTF_8 : WINDOWS_1251);
+    }
+
+    /**
+     * Потоковый вариант {@link #openReader(byte[])} для текста, который еще приходит по сети:
+     * BOM определяется по первым байтам, текст без BOM читается как UTF-8 в строгом режиме.
+     * Если поток оказывается не UTF-8, чтение бросает {@link CharacterCodingException},
+     * и вызывающий код должен перейти к {@link #openReader(byte[])} по всем байтам.
+     */
+    public Reader openStreamingReader(InputStream in) throws IOException {
+        PushbackInputStream stream = new PushbackInputStream(in, 3);
+        byte[] head = stream.readNBytes(3);
+        int length = head.length;
+        if (length == 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF) {
+            return new InputStreamReader(stream, StandardCharsets.UTF_8);
+        }
+        if (length >= 2 && (head[0] & 0xFF) == 0xFE && (head[1] & 0xFF) == 0xFF) {
+            stream.unread(head, 2, length - 2);
+            return new InputStreamReader(stream, StandardCharsets.UTF_16BE);
+        }
+        if (length >= 2 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xFE) {
+            stream.unread(head, 2, length - 2);
+            return new InputStreamReader(stream, StandardCharsets.UTF_16LE);
+        }
+        stream.unread(head, 0, length);
+        return new InputStreamReader(stream, StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT));
+    }
+
+    /**
+     * Читает текст из {@code reader} и пишет нормализованную форму в {@code out}:
+     * слова в нижнем регистре, разделенные одним пробелом.
+     */
+    public void normalize(Reader reader, Appendable out) throws IOException {
+        char[] input = new char[BUFFER_SIZE];
+        WordBuffer word = new WordBuffer();
+        boolean first = true;
+        char pendingHigh = 0;
+        int read;
+        while ((read = reader.read(input)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = input[i];
+                int codePoint;
+                if (pendingHigh != 0) {
+                    codePoint = Character.isLowSurrogate(c) ? Character.toCodePoint(pendingHigh, c) : c;
+                    pendingHigh = 0;
+                } else if (Character.isHighSurrogate(c)) {
+                    pendingHigh = c;
+                    continue;
+                } else {
+                    codePoint = c;
+                }
+                if (accept(codePoint, word)) {
+                    continue;
+                }
+                first = flushWord(word, out, first);
+            }
+        }
+        flushWord(word, out, first);
+    }
+
+    // Возвращает true, если символ продолжает текущее слово
+    private boolean accept(int codePoint, WordBuffer word) {
+        if (codePoint < 0x80) {
+            if ((codePoint >= 'a' && codePoint <= 'z') || (codePoint >= '0' && codePoint <= '9')) {
+                word.append((char) codePoint);
+                return true;
+            }
+            if (codePoint >= 'A' && codePoint <= 'Z') {
+                word.append((char) (codePoint + ('a' - 'A')));
+                return true;
+            }
+            return false;
+        }
+        if (Character.getType(codePoint) == Character.FORMAT) {
+            // Невидимые символы (zero-width, BOM, мягкий перенос) не разрывают слово
+            return true;
+        }
+        if (codePoint > 0xFFFF) {
+            return acceptNormalized(Normalizer.normalize(Character.toString(codePoint), Normalizer.Form.NFKD), word);
+        }
+        String decomposed = DECOMPOSITION_CACHE[codePoint];
+        if (decomposed == null) {
+            decomposed = Normalizer.normalize(String.valueOf((char) codePoint), Normalizer.Form.NFKD);
+            DECOMPOSITION_CACHE[codePoint] = decomposed;
+        }
+        return acceptNormalized(decomposed, word);
+    }
+
+    private boolean acceptNormalized(String decomposed, WordBuffer word) {
+        for (int i = 0; i < decomposed.length(); i++) {
+            int codePoint = decomposed.codePointAt(i);
+            if (Character.isSupplementaryCodePoint(codePoint)) {
+                i++;
+            }
+            int type = Character.getType(codePoint);
+            if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                    || type == Character.ENCLOSING_MARK) {
+                // Диакритика отбрасывается: "ё" -> "е", "é" -> "e". Кроме "й": это отдельная буква,
+                // и на нее заканчиваются русские окончания ("-ый", "-ений")
+                if (codePoint == COMBINING_BREVE && word.length > 0 && word.chars[word.length - 1] == 'и') {
+                    word.chars[word.length - 1] = 'й';
+                }
+                continue;
+            }
+            if (Character.isLetterOrDigit(codePoint)) {
+                word.appendCodePoint(Character.toLowerCase(codePoint));
+            } else if (i == 0) {
+                // Пробелы и пунктуация в любой форме (NBSP, полноширинные знаки) разделяют слова
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean flushWord(WordBuffer word, Appendable out, boolean first) throws IOException {
+        if (word.isEmpty()) {
+            return first;
+        }
+        boolean cyrillic = foldConfusables(word);
+        if (stemming) {
+            stem(word, cyrillic ? RUSSIAN_SUFFIXES : ENGLISH_SUFFIXES);
+        }
+        if (!first) {
+            out.append(' ');
+        }
+        for (int i = 0; i < word.length; i++) {
+            out.append(word.chars[i]);
+        }
+        word.length = 0;
+        return false;
+    }
+
+    /**
+     * Приводит похожие буквы к письменности, которая преобладает среди однозначных букв слова.
+     * Слово только из неоднозначных букв (или с равным числом однозначных) приводится
+     * к письменности предыдущего однозначного слова, в начале текста - к кириллице.
+     * Возвращает true, если слово в итоге записано кириллицей.
+     */
+    private boolean foldConfusables(WordBuffer word) {
+        int cyrillic = 0;
+        int latin = 0;
+        for (int i = 0; i < word.length; i++) {
+            char c = word.chars[i];
+            if (c < 0x80) {
+                if (c >= 'a' && c <= 'z' && LATIN_TO_CYRILLIC[c] == 0) {
+                    latin++;
+                }
+            } else if (c < CYRILLIC_TO_LATIN.length && c >= 0x400 && CYRILLIC_TO_LATIN[c] == 0) {
+                cyrillic++;
+            }
+        }
+        boolean toCyrillic = cyrillic == latin ? word.contextCyrillic : cyrillic > latin;
+        word.contextCyrillic = toCyrillic;
+        for (int i = 0; i < word.length; i++) {
+            char c = word.chars[i];
+            if (toCyrillic) {
+                if (c < 0x80 && LATIN_TO_CYRILLIC[c] != 0) {
+                    word.chars[i] = LATIN_TO_CYRILLIC[c];
+                }
+            } else if (c >= 0x400 && c < CYRILLIC_TO_LATIN.length && CYRILLIC_TO_LATIN[c] != 0) {
+                word.chars[i] = CYRILLIC_TO_LATIN[c];
+            }
+        }
+        return toCyrillic;
+    }
+
+    private void stem(WordBuffer word, char[][] suffixes) {
+        for (char[] suffix : suffixes) {
+            int stemLength = word.length - suffix.length;
+            if (stemLength < MIN_STEM_LENGTH) {
+                continue;
+            }
+            if (endsWith(word, suffix)) {
+                word.length = stemLength;
+                return;
+            }
+        }
+    }
+
+    private boolean endsWith(WordBuffer word, char[] suffix) {
+        int offset = word.length - suffix.length;
+        for (int i = 0; i < suffix.length; i++) {
+            if (word.chars[offset + i] != suffix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isValidUtf8(byte[] bytes) {
+        int i = 0;
+        while (i < bytes.length) {
+            int b = bytes[i] & 0xFF;
+            int continuation;
+            if (b < 0x80) {
+                i++;
+                continue;
+            } else if (b >= 0xC2 && b <= 0xDF) {
+                continuation = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                continuation = 2;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                continuation = 3;
+            } else {
+                return false;
+            }
+            if (i + continuation >= bytes.length) {
+                return false;
+            }
+            for (int k = 1; k <= continuation; k++) {
+                if ((bytes[i + k] & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+            i += continuation + 1;
+        }
+        return true;
+    }
+
+    private static Reader reader(byte[] bytes, int offset, Charset charset) {
+        return new InputStreamReader(new ByteArrayInputStream(bytes, offset, bytes.length - offset), charset);
+    }
+
+    private static char[][] suffixes(String... values) {
+        char[][] result = new char[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].toCharArray();
+        }
+        Arrays.sort(result, (a, b) -> b.length - a.length);
+        return result;
+    }
+
+    private static final class WordBuffer {
+        private char[] chars = new char[64];
+        private int length;
+        // Письменность последнего записанного слова: по ней сворачиваются неоднозначные слова
+        private boolean contextCyrillic = true;
+
+        void append(char c) {
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+            chars[length++] = c;
+        }
+
+        void appendCodePoint(int codePoint) {
+            if (Character.isBmpCodePoint(codePoint)) {
+                append((char) codePoint);
+            } else {
+                append(Character.highSurrogate(codePoint));
+                append(Character.lowSurrogate(codePoint));
+            }
+        }
+
+        boolean isEmpty() {
+            return length == 0;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package fileanalysis.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class WeightedFairQueueTest {
+
+    private static WeightedFairQueue<String> queue(int capacityPerClass) {
+        return new WeightedFairQueue<>(Map.of(PriorityClass.INTERACTIVE, 8, PriorityClass.BULK, 1), capacityPerClass);
+    }
+
+    private static String take(WeightedFairQueue<String> queue, int count) throws InterruptedException {
+        StringBuilder taken = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            taken.append(queue.take());
+        }
+        return taken.toString();
+    }
+
+    @Test
+    void servesEightInteractivePerBulk() throws InterruptedException {
+        WeightedFairQueue<String> queue = queue(100);
+        for (int i = 0; i < 20; i++) {
+            queue.offer(PriorityClass.BULK, "B");
+            queue.offer(PriorityClass.INTERACTIVE, "I");
+        }
+
+        // Когда интерактивные кончаются, фоновые идут подряд
+        assertEquals("IIIIIIIIB" + "IIIIIIIIB" + "IIII" + "B".repeat(18), take(queue, 40));
+    }
+
+    @Test
+    void emptiedClassEndsItsTurn() throws InterruptedException {
+        WeightedFairQueue<String> queue = queue(100);
+        queue.offer(PriorityClass.INTERACTIVE, "I");
+        assertEquals("I", take(queue, 1));
+
+        for (int i = 0; i < 3; i++) {
+            queue.offer(PriorityClass.BULK, "B");
+        }
+        for (int i = 0; i < 10; i++) {
+            queue.offer(PriorityClass.INTERACTIVE, "I");
+        }
+        assertEquals("BIIIIIIIIBIIB", take(queue, 13));
+    }
+
+    @Test
+    void rejectsOnlyWhenOwnClassIsFull() {
+        WeightedFairQueue<String> queue = queue(2);
+        assertTrue(queue.offer(PriorityClass.BULK, "B1"));
+        assertTrue(queue.offer(PriorityClass.BULK, "B2"));
+        assertFalse(queue.offer(PriorityClass.BULK, "B3"));
+
+        assertTrue(queue.offer(PriorityClass.INTERACTIVE, "I1"));
+        assertEquals(2, queue.size(PriorityClass.BULK));
+        assertEquals(1, queue.size(PriorityClass.INTERACTIVE));
+    }
+
+    @Test
+    void acceptsAgainAfterClear() throws InterruptedException {
+        WeightedFairQueue<String> queue = queue(1);
+        queue.offer(PriorityClass.BULK, "B1");
+        queue.offer(PriorityClass.INTERACTIVE, "I1");
+        queue.clear();
+
+        assertEquals(0, queue.size(PriorityClass.BULK));
+        assertTrue(queue.offer(PriorityClass.BULK, "B2"));
+        assertEquals("B2", queue.take());
+    }
+
+    @Test
+    void takeWaitsForOffer() throws Exception {
+        WeightedFairQueue<String> queue = queue(1);
+        StringBuilder taken = new StringBuilder();
+        Thread consumer = new Thread(() -> {
+            try {
+                taken.append(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        queue.offer(PriorityClass.BULK, "B");
+        consumer.join(5000);
+
+        assertFalse(consumer.isAlive());
+        assertEquals("B", taken.toString());
+    }
+}
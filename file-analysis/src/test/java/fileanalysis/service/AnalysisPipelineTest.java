@@ -0,0 +1,197 @@
+package fileanalysis.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import fileanalysis.entity.Analysis;
+import fileanalysis.repository.AnalysisRepository;
+import fileanalysis.scheduler.PriorityClass;
+
+class AnalysisPipelineTest {
+
+    private final Map<Long, String> hashes = new ConcurrentHashMap<>();
+    private final Map<Long, CountDownLatch> hashGates = new ConcurrentHashMap<>();
+
+    // Отчеты, "закоммиченные" в БД: только их видит findByFileHashIn
+    private final List<Analysis> committed = new CopyOnWriteArrayList<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Semaphore lookups = new Semaphore(0);
+    private final CountDownLatch saveStarted = new CountDownLatch(1);
+    private volatile CountDownLatch saveGate;
+    private volatile boolean saveFails;
+
+    private AnalysisPipeline pipeline;
+
+    @AfterEach
+    void stopPipeline() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    private AnalysisPipeline start(int fetchConcurrency) {
+        AnalysisRepository repository = mock(AnalysisRepository.class);
+        when(repository.findByFileHashIn(any())).thenAnswer(invocation -> {
+            Collection<String> requested = invocation.getArgument(0);
+            List<Analysis> found = committed.stream().filter(report -> requested.contains(report.getFileHash())).toList();
+            lookups.release();
+            return found;
+        });
+        when(repository.saveAll(any())).thenAnswer(invocation -> save(invocation.getArgument(0)));
+
+        FileAnalysisService fileAnalysisService = new FileAnalysisService(repository, null, null, null) {
+            @Override
+            public String hashText(Long workId) throws IOException {
+                CountDownLatch gate = hashGates.get(workId);
+                if (gate != null) {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+                return hashes.get(workId);
+            }
+        };
+
+        pipeline = new AnalysisPipeline(fileAnalysisService, repository);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 16);
+        ReflectionTestUtils.setField(pipeline, "fetchConcurrency", fetchConcurrency);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 8);
+        ReflectionTestUtils.setField(pipeline, "interactiveWeight", 8);
+        ReflectionTestUtils.setField(pipeline, "bulkWeight", 1);
+        pipeline.start();
+        return pipeline;
+    }
+
+    private List<Analysis> save(Iterable<Analysis> reports) throws InterruptedException {
+        saveStarted.countDown();
+        CountDownLatch gate = saveGate;
+        if (gate != null) {
+            gate.await();
+        }
+        if (saveFails) {
+            throw new IllegalStateException("БД недоступна");
+        }
+        List<Analysis> saved = new ArrayList<>();
+        for (Analysis report : reports) {
+            report.setId(nextId.getAndIncrement());
+            saved.add(report);
+        }
+        committed.addAll(saved);
+        return saved;
+    }
+
+    private static Analysis await(CompletableFuture<Analysis> result) throws Exception {
+        return result.get(5, TimeUnit.SECONDS);
+    }
+
+    private static Analysis report(long workId, String fileHash) {
+        Analysis report = new Analysis();
+        report.setId(100 + workId);
+        report.setWorkId(workId);
+        report.setFileHash(fileHash);
+        report.setPlagiarismDetected(false);
+        return report;
+    }
+
+    @Test
+    void detectsDuplicateOfWorkWhoseReportIsNotCommittedYet() throws Exception {
+        start(4);
+        hashes.put(1L, "h");
+        hashes.put(2L, "h");
+        CountDownLatch secondHash = new CountDownLatch(1);
+        hashGates.put(2L, secondHash);
+        saveGate = new CountDownLatch(1);
+
+        CompletableFuture<Analysis> first = pipeline.submit(1L, PriorityClass.INTERACTIVE);
+        CompletableFuture<Analysis> second = pipeline.submit(2L, PriorityClass.INTERACTIVE);
+
+        // Отчет первой работы уже сохраняется, но в БД его еще не видно
+        assertTrue(saveStarted.await(5, TimeUnit.SECONDS));
+        secondHash.countDown();
+        assertTrue(lookups.tryAcquire(2, 5, TimeUnit.SECONDS));
+        saveGate.countDown();
+
+        assertFalse(await(first).getPlagiarismDetected());
+        Analysis duplicate = await(second);
+        assertTrue(duplicate.getPlagiarismDetected());
+        assertEquals("Найден дубликат файла в работе ID: 1", duplicate.getDetails());
+    }
+
+    @Test
+    void detectsDuplicateInDatabaseButNotOwnEarlierReport() throws Exception {
+        start(4);
+        committed.add(report(7L, "h"));
+        hashes.put(7L, "h");
+        hashes.put(8L, "h");
+
+        assertFalse(await(pipeline.submit(7L, PriorityClass.INTERACTIVE)).getPlagiarismDetected());
+        Analysis duplicate = await(pipeline.submit(8L, PriorityClass.BULK));
+        assertTrue(duplicate.getPlagiarismDetected());
+        assertEquals("Найден дубликат файла в работе ID: 7", duplicate.getDetails());
+    }
+
+    @Test
+    void failedBatchFailsJobsAndReleasesTheirHashes() throws Exception {
+        start(4);
+        hashes.put(1L, "h");
+        hashes.put(2L, "h");
+        saveFails = true;
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> await(pipeline.submit(1L, PriorityClass.INTERACTIVE)));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+
+        // Несохраненная работа не должна считаться оригиналом для следующей
+        saveFails = false;
+        assertFalse(await(pipeline.submit(2L, PriorityClass.INTERACTIVE)).getPlagiarismDetected());
+    }
+
+    @Test
+    void stopFailsFetchingAndQueuedJobs() throws Exception {
+        start(1);
+        hashes.put(1L, "a");
+        hashes.put(2L, "b");
+        hashGates.put(1L, new CountDownLatch(1));
+        hashGates.put(2L, new CountDownLatch(1));
+
+        CompletableFuture<Analysis> fetching = pipeline.submit(1L, PriorityClass.INTERACTIVE);
+        CompletableFuture<Analysis> queued = pipeline.submit(2L, PriorityClass.INTERACTIVE);
+        pipeline.stop();
+
+        assertTrue(fetching.isCompletedExceptionally());
+        ExecutionException error = assertThrows(ExecutionException.class, () -> await(queued));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+
+        ExecutionException afterStop = assertThrows(ExecutionException.class,
+            () -> await(pipeline.submit(3L, PriorityClass.INTERACTIVE)));
+        assertInstanceOf(RejectedExecutionException.class, afterStop.getCause());
+    }
+}
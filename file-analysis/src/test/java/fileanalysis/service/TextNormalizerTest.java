@@ -0,0 +1,92 @@
+package fileanalysis.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class TextNormalizerTest {
+
+    private static String normalize(String text, boolean stemming) throws IOException {
+        TextNormalizer normalizer = new TextNormalizer();
+        ReflectionTestUtils.setField(normalizer, "enabled", true);
+        ReflectionTestUtils.setField(normalizer, "stemming", stemming);
+        StringBuilder out = new StringBuilder();
+        normalizer.normalize(new StringReader(text), out);
+        return out.toString();
+    }
+
+    @Test
+    void stemsRussianSuffixesEndingWithShortI() throws IOException {
+        assertEquals("знач", normalize("значений", true));
+        assertEquals("нов", normalize("новый", true));
+        assertEquals("больш", normalize("большой", true));
+        assertEquals("игра", normalize("играющий", true));
+    }
+
+    @Test
+    void keepsShortIWrittenWithCombiningBreve() throws IOException {
+        // "и" + U+0306 вместо готовой "й"
+        assertEquals("новый", normalize("новы\u0438\u0306", false));
+        assertEquals("знач", normalize("значени\u0438\u0306", true));
+    }
+
+    @Test
+    void dropsOtherDiacritics() throws IOException {
+        assertEquals("еж cafe", normalize("Ёж café", false));
+    }
+
+    @Test
+    void foldsLatinLookalikesInsideCyrillicWord() throws IOException {
+        // "e" и "к" латинские
+        assertEquals(normalize("текст", false), normalize("тeкст", false));
+        assertEquals("текст", normalize("тeкст", false));
+    }
+
+    @Test
+    void foldsCyrillicLookalikesInsideLatinWord() throws IOException {
+        // "о" и "р" кириллические
+        assertEquals("report", normalize("rероrt", false));
+    }
+
+    @Test
+    void foldsAllConfusableWordToScriptOfContext() throws IOException {
+        // "рука" целиком из неоднозначных букв: в русском тексте остается кириллицей и стеммится по-русски
+        assertEquals("моя рук", normalize("моя рука", true));
+        assertEquals(normalize("моя руки", true), normalize("моя рука", true));
+        assertEquals(normalize("моя рука", true), normalize("моя pyka", true));
+        // В английском тексте то же слово сворачивается в латиницу
+        assertEquals("run cop", normalize("run сор", false));
+        assertEquals("сор", normalize("сор", false));
+    }
+
+    @Test
+    void ignoresWhitespaceAndPunctuation() throws IOException {
+        String expected = "привет мир";
+        assertEquals(expected, normalize("Привет, мир!", false));
+        assertEquals(expected, normalize("  привет\r\n\tмир...  ", false));
+        assertEquals(expected, normalize("привет — мир", false));
+        assertEquals(expected, normalize("ПРИВЕТ\uFF01\uFF2DИР", false));
+    }
+
+    @Test
+    void ignoresInvisibleCharactersInsideWords() throws IOException {
+        assertEquals("привет мир", normalize("при\u200Bвет ми\u00ADр", false));
+    }
+
+    @Test
+    void detectsEncodingOfRawBytes() throws IOException {
+        TextNormalizer normalizer = new TextNormalizer();
+        String text = "Проверка кодировки";
+        StringBuilder utf8 = new StringBuilder();
+        StringBuilder cp1251 = new StringBuilder();
+        normalizer.normalize(normalizer.openReader(text.getBytes(StandardCharsets.UTF_8)), utf8);
+        normalizer.normalize(normalizer.openReader(text.getBytes(Charset.forName("windows-1251"))), cp1251);
+        assertEquals(utf8.toString(), cp1251.toString());
+    }
+}
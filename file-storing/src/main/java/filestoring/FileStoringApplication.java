@@ -2,8 +2,10 @@ package filestoring;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "filestoring")
+@EnableScheduling
 public class FileStoringApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,108 @@
+package filestoring.contoller;
+
+import java.io.IOException;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import contracts.ContentEncoding;
+import contracts.WorkInfo;
+import filestoring.entity.Work;
+import filestoring.service.FileStorageService;
+import filestoring.service.StoredFile;
+import filestoring.service.TextExtractionService;
+
+@RestController
+@RequestMapping("/files")
+public class FileStoringController {
+    
+    private final FileStorageService fileStorageService;
+    private final TextExtractionService textExtractionService;
+    
+    public FileStoringController(FileStorageService fileStorageService, TextExtractionService textExtractionService) {
+        this.fileStorageService = fileStorageService;
+        this.textExtractionService = textExtractionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<WorkInfo> uploadFile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("studentName") String studentName,
+            @RequestParam("assignmentName") String assignmentName) {
+        try {
+            Work work = fileStorageService.saveFile(file, studentName, assignmentName);
+            textExtractionService.scheduleExtraction(work);
+            return ResponseEntity.ok(toInfo(work));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    @GetMapping("/{id}/info")
+    public ResponseEntity<WorkInfo> getWorkInfo(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(toInfo(fileStorageService.getWork(id)));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Resource> getFile(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            StoredFile file = fileStorageService.getStoredFile(id);
+            
+            String filename = file.resource().getFilename();
+            if (filename == null) {
+                filename = "file_" + id;
+            }
+            
+            return encoded(file, acceptEncoding, ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\""));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}/text")
+    public ResponseEntity<Resource> getText(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            StoredFile text = textExtractionService.getText(id);
+            return encoded(text, acceptEncoding, ResponseEntity.ok()
+                .contentType(MediaType.TEXT_PLAIN));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Сжатый файл отдается как есть клиентам, которые принимают gzip, остальным - распакованным
+    private ResponseEntity<Resource> encoded(StoredFile file, String acceptEncoding, ResponseEntity.BodyBuilder response)
+            throws IOException {
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!file.isGzip()) {
+            return response.body(file.resource());
+        }
+        if (ContentEncoding.acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, ContentEncoding.GZIP).body(file.resource());
+        }
+        return response.body(new InputStreamResource(file.openDecoded()));
+    }
+
+    private static WorkInfo toInfo(Work work) {
+        return new WorkInfo(work.getId(), work.getStudentName(), work.getAssignmentName(),
+            work.getFilePath(), work.getUploadedAt());
+    }
+}
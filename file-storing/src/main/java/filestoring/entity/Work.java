@@ -30,6 +30,23 @@ public class Work {
     @Column(name="file_path", nullable=false)
     private String filePath;
 
+    @Column(name="text_path")
+    private String textPath;
+
+    // identity или gzip; null у работ, загруженных до сжатия, означает identity
+    @Column(name="content_encoding")
+    private String contentEncoding;
+
+    // Положение в архиве; null, пока работа хранится отдельным файлом в file_path
+    @Column(name="archive_segment")
+    private Integer archiveSegment;
+
+    @Column(name="archive_offset")
+    private Long archiveOffset;
+
+    @Column(name="archive_length")
+    private Long archiveLength;
+
     @Column(name="uploaded_at")
     @CreationTimestamp
     private LocalDateTime uploadedAt;
@@ -0,0 +1,41 @@
+package filestoring.extraction;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class DocxTextExtractor extends ZipXmlTextExtractor {
+
+    private static final String WORD_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    @Override
+    public boolean supports(String extension) {
+        return ".docx".equals(extension);
+    }
+
+    @Override
+    protected String contentEntry() {
+        return "word/document.xml";
+    }
+
+    @Override
+    protected boolean isTextElement(String namespaceUri, String localName) {
+        return WORD_NS.equals(namespaceUri) && "t".equals(localName);
+    }
+
+    @Override
+    protected String onStartElement(String namespaceUri, String localName) {
+        if (!WORD_NS.equals(namespaceUri)) {
+            return null;
+        }
+        return switch (localName) {
+            case "tab" -> "\t";
+            case "br", "cr" -> "\n";
+            default -> null;
+        };
+    }
+
+    @Override
+    protected String onEndElement(String namespaceUri, String localName) {
+        return WORD_NS.equals(namespaceUri) && "p".equals(localName) ? "\n" : null;
+    }
+}
@@ -0,0 +1,42 @@
+package filestoring.extraction;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class OdtTextExtractor extends ZipXmlTextExtractor {
+
+    private static final String TEXT_NS = "urn:oasis:names:tc:opendocument:xmlns:text:1.0";
+
+    @Override
+    public boolean supports(String extension) {
+        return ".odt".equals(extension);
+    }
+
+    @Override
+    protected String contentEntry() {
+        return "content.xml";
+    }
+
+    @Override
+    protected boolean isTextElement(String namespaceUri, String localName) {
+        return TEXT_NS.equals(namespaceUri) && ("p".equals(localName) || "h".equals(localName));
+    }
+
+    @Override
+    protected String onStartElement(String namespaceUri, String localName) {
+        if (!TEXT_NS.equals(namespaceUri)) {
+            return null;
+        }
+        return switch (localName) {
+            case "s" -> " ";
+            case "tab" -> "\t";
+            case "line-break" -> "\n";
+            default -> null;
+        };
+    }
+
+    @Override
+    protected String onEndElement(String namespaceUri, String localName) {
+        return isTextElement(namespaceUri, localName) ? "\n" : null;
+    }
+}
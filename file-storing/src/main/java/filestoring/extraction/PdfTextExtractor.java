@@ -0,0 +1,40 @@
+package filestoring.extraction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PdfTextExtractor implements TextExtractor {
+
+    @Override
+    public boolean supports(String extension) {
+        return ".pdf".equals(extension);
+    }
+
+    /**
+     * PDF требует произвольного доступа, поэтому поток сначала пишется во временный файл,
+     * а объекты документа кешируются на диске, а не в куче. Текст пишется постранично.
+     */
+    @Override
+    public void extract(InputStream in, Writer out) throws IOException {
+        Path tempFile = Files.createTempFile("extract-", ".pdf");
+        try {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            try (PDDocument document = Loader.loadPDF(tempFile.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+                new PDFTextStripper().writeText(document, out);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package filestoring.extraction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+
+/**
+ * Извлечение простого текста из документа определенного формата.
+ * Реализации читают документ потоково и пишут текст в {@code out} по мере разбора.
+ */
+public interface TextExtractor {
+
+    /**
+     * @param extension расширение файла в нижнем регистре, с точкой (".docx")
+     */
+    boolean supports(String extension);
+
+    void extract(InputStream in, Writer out) throws IOException;
+}
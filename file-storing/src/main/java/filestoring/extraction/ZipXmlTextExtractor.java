@@ -0,0 +1,101 @@
+package filestoring.extraction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Общий потоковый разбор офисных документов (ZIP-архив с XML внутри) через StAX:
+ * в памяти находится только текущий буфер парсера, а не весь документ.
+ */
+abstract class ZipXmlTextExtractor implements TextExtractor {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createFactory();
+
+    /** Имя XML-файла с текстом внутри архива */
+    protected abstract String contentEntry();
+
+    /** Символьные данные внутри этого элемента попадают в результат */
+    protected abstract boolean isTextElement(String namespaceUri, String localName);
+
+    /** Что дописать в результат при открытии элемента (табуляция, пробел), либо null */
+    protected abstract String onStartElement(String namespaceUri, String localName);
+
+    /** Что дописать в результат при закрытии элемента (перевод строки после абзаца), либо null */
+    protected abstract String onEndElement(String namespaceUri, String localName);
+
+    @Override
+    public void extract(InputStream in, Writer out) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (contentEntry().equals(entry.getName())) {
+                writeText(zip, out);
+                return;
+            }
+        }
+        throw new IOException("В документе нет " + contentEntry());
+    }
+
+    private void writeText(InputStream xml, Writer out) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(xml);
+            int textDepth = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        if (isTextElement(reader.getNamespaceURI(), reader.getLocalName())) {
+                            textDepth++;
+                        }
+                        write(out, onStartElement(reader.getNamespaceURI(), reader.getLocalName()));
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (isTextElement(reader.getNamespaceURI(), reader.getLocalName())) {
+                            textDepth--;
+                        }
+                        write(out, onEndElement(reader.getNamespaceURI(), reader.getLocalName()));
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (textDepth > 0) {
+                            out.write(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Не удалось разобрать документ: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // поток закрывает вызывающий код
+                }
+            }
+        }
+    }
+
+    private void write(Writer out, String value) throws IOException {
+        if (value != null) {
+            out.write(value);
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+}
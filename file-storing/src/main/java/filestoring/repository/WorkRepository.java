@@ -0,0 +1,38 @@
+package filestoring.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import filestoring.entity.Work;
+
+@Repository 
+public interface WorkRepository extends JpaRepository<Work, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("update Work w set w.textPath = :textPath where w.id = :id")
+    void updateTextPath(@Param("id") Long id, @Param("textPath") String textPath);
+
+    // Страницы по возрастанию id: работы, которые не удалось заархивировать, не выбираются повторно
+    @Query("select w from Work w where w.archiveSegment is null and w.uploadedAt < :cutoff and w.id > :afterId "
+        + "order by w.id")
+    List<Work> findArchiveCandidates(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    List<Work> findByArchiveSegmentIsNotNullAndTextPathIsNotNull();
+
+    @Transactional
+    @Modifying
+    @Query("update Work w set w.archiveSegment = :segment, w.archiveOffset = :offset, w.archiveLength = :length "
+        + "where w.id = :id")
+    void updateArchiveLocation(@Param("id") Long id, @Param("segment") Integer segment,
+                               @Param("offset") Long offset, @Param("length") Long length);
+}
@@ -0,0 +1,211 @@
+package filestoring.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Архив старых работ: большие сегменты, в которые файлы только дописываются.
+ * Положение файла (сегмент, смещение, длина) хранится в Work, поэтому чтение - это
+ * один seek без поиска по индексу. Рядом с каждым сегментом лежит индекс из записей
+ * фиксированной длины (workId, offset, length) для проверки и восстановления.
+ */
+@Component
+public class ArchiveStorage {
+
+    private static final int INDEX_RECORD_SIZE = 3 * Long.BYTES;
+
+    @Value("${file.storage.archive.path:${file.storage.path}/archive}")
+    private String archivePath;
+
+    @Value("${file.storage.archive.segment-size:1GB}")
+    private DataSize segmentSize;
+
+    private int currentSegment;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path dir = Paths.get(archivePath);
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            currentSegment = files
+                .map(path -> path.getFileName().toString())
+                .filter(name -> name.startsWith("segment-") && name.endsWith(".pack"))
+                .mapToInt(name -> Integer.parseInt(name.substring("segment-".length(), name.length() - ".pack".length())))
+                .max()
+                .orElse(1);
+        }
+    }
+
+    /**
+     * Дописывает файл в текущий сегмент (или начинает новый, если текущий заполнен)
+     * и сбрасывает сегмент и индекс на диск до возврата, а для нового сегмента - и каталог архива.
+     */
+    public synchronized Location append(long workId, Path source) throws IOException {
+        long length = Files.size(source);
+        Path current = segmentPath(currentSegment);
+        long currentSize = Files.exists(current) ? Files.size(current) : 0;
+        if (currentSize > 0 && currentSize + length > segmentSize.toBytes()) {
+            currentSegment++;
+        }
+
+        int segment = currentSegment;
+        boolean created = !Files.exists(segmentPath(segment)) || !Files.exists(indexPath(segment));
+        long offset;
+        try (FileChannel out = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            offset = out.size();
+            long written = 0;
+            while (written < length) {
+                long count = out.transferFrom(in, offset + written, length - written);
+                if (count <= 0) {
+                    throw new IOException("Файл изменился во время архивирования: " + source);
+                }
+                written += count;
+            }
+            out.force(false);
+        }
+
+        try (FileChannel index = FileChannel.open(indexPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD_SIZE);
+            record.putLong(workId).putLong(offset).putLong(length).flip();
+            while (record.hasRemaining()) {
+                index.write(record);
+            }
+            index.force(false);
+        }
+
+        if (created) {
+            // Без этого после сбоя запись нового сегмента в каталоге может пропасть,
+            // хотя Work уже ссылается на него, а исходный файл удален
+            syncDirectory(Paths.get(archivePath));
+        }
+        return new Location(segment, offset, length);
+    }
+
+    /**
+     * Файл из архива как Resource: поток читает только свой участок сегмента.
+     */
+    public Resource open(Location location, String filename) {
+        return new SegmentResource(segmentPath(location.segment()), location, filename);
+    }
+
+    public InputStream openStream(Location location) throws IOException {
+        return open(location, null).getInputStream();
+    }
+
+    private static void syncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private Path segmentPath(int segment) {
+        return Paths.get(archivePath, String.format("segment-%06d.pack", segment));
+    }
+
+    private Path indexPath(int segment) {
+        return Paths.get(archivePath, String.format("segment-%06d.idx", segment));
+    }
+
+    public record Location(int segment, long offset, long length) {}
+
+    private static final class SegmentResource extends AbstractResource {
+        private final Path segmentPath;
+        private final Location location;
+        private final String filename;
+
+        SegmentResource(Path segmentPath, Location location, String filename) {
+            this.segmentPath = segmentPath;
+            this.location = location;
+            this.filename = filename;
+        }
+
+        @Override
+        public String getDescription() {
+            return "archive " + segmentPath + " [" + location.offset() + ", " + location.length() + "]";
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public boolean exists() {
+            return Files.exists(segmentPath);
+        }
+
+        @Override
+        public long contentLength() {
+            return location.length();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ);
+            channel.position(location.offset());
+            InputStream in = Channels.newInputStream(channel);
+            return new InputStream() {
+                private long remaining = location.length();
+
+                @Override
+                public int read() throws IOException {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int b = in.read();
+                    if (b >= 0) {
+                        remaining--;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int count = in.read(buffer, offset, (int) Math.min(length, remaining));
+                    if (count > 0) {
+                        remaining -= count;
+                    }
+                    return count;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    in.close();
+                }
+            };
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof SegmentResource resource
+                && resource.segmentPath.equals(segmentPath) && resource.location.equals(location);
+        }
+
+        @Override
+        public int hashCode() {
+            return segmentPath.hashCode() * 31 + location.hashCode();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package filestoring.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import filestoring.entity.Work;
+import filestoring.repository.WorkRepository;
+
+/**
+ * Периодически переносит работы старше {@code file.storage.archive.age} из отдельных файлов
+ * в сегменты архива. Порядок шагов защищает от потери данных при сбое: сначала запись
+ * в сегмент с fsync, затем обновление Work, и только после этого удаление исходного файла.
+ */
+@Service
+public class ArchivingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivingService.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final WorkRepository workRepository;
+    private final ArchiveStorage archiveStorage;
+
+    @Value("${file.storage.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.storage.archive.age:P180D}")
+    private Duration archiveAge;
+
+    public ArchivingService(WorkRepository workRepository, ArchiveStorage archiveStorage) {
+        this.workRepository = workRepository;
+        this.archiveStorage = archiveStorage;
+    }
+
+    @Scheduled(fixedDelayString = "${file.storage.archive.interval:PT1H}", initialDelayString = "PT1M")
+    public void archiveOldWorks() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(archiveAge);
+        int archived = 0;
+        int failed = 0;
+        long lastId = 0;
+        List<Work> batch;
+        do {
+            batch = workRepository.findArchiveCandidates(cutoff, lastId, PageRequest.of(0, BATCH_SIZE));
+            for (Work work : batch) {
+                if (archive(work)) {
+                    archived++;
+                } else {
+                    failed++;
+                }
+                lastId = work.getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        dropArchivedTextCaches();
+
+        if (archived > 0 || failed > 0) {
+            log.info("В архив перенесено работ: {}, не удалось: {}", archived, failed);
+        }
+    }
+
+    private boolean archive(Work work) {
+        Path source = Paths.get(work.getFilePath());
+        try {
+            if (!Files.exists(source)) {
+                log.warn("Файл работы {} не найден, архивирование пропущено: {}", work.getId(), source);
+                return false;
+            }
+            ArchiveStorage.Location location = archiveStorage.append(work.getId(), source);
+            workRepository.updateArchiveLocation(work.getId(), location.segment(), location.offset(), location.length());
+            Files.delete(source);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ошибка при архивировании работы {}", work.getId(), e);
+            return false;
+        }
+    }
+
+    // Кеш текста старых работ тоже удаляется: при редком повторном чтении он будет извлечен заново
+    private void dropArchivedTextCaches() {
+        for (Work work : workRepository.findByArchiveSegmentIsNotNullAndTextPathIsNotNull()) {
+            try {
+                Files.deleteIfExists(Paths.get(work.getTextPath()));
+                workRepository.updateTextPath(work.getId(), null);
+            } catch (IOException e) {
+                log.warn("Не удалось удалить кеш текста работы {}: {}", work.getId(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package filestoring.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import contracts.ContentEncoding;
+import filestoring.entity.Work;
+import filestoring.repository.WorkRepository;
+
+@Service
+public class FileStorageService {
+
+    private final WorkRepository workRepository;
+    private final ArchiveStorage archiveStorage;
+
+    @Value("${file.storage.path}")
+    private String storagePath;
+
+    @Value("${file.storage.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    // Текстовые форматы сжимаются в 3-5 раз; docx, odt и pdf уже сжаты внутри
+    @Value("${file.storage.compression.extensions:.txt,.md}")
+    private Set<String> compressedExtensions;
+
+    public FileStorageService(WorkRepository workRepository, ArchiveStorage archiveStorage) {
+        this.workRepository = workRepository;
+        this.archiveStorage = archiveStorage;
+    }
+
+    public Work saveFile(MultipartFile file, String studentName, String assignmentName) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Файл не может быть пустым");
+        }
+
+        String originalFilename = file.getOriginalFilename();
+        String fileExtension = originalFilename != null && originalFilename.contains(".") 
+            ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
+            : "";
+        String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
+
+        Path storageDir = Paths.get(storagePath);
+        
+        if (!Files.exists(storageDir)) {
+            Files.createDirectories(storageDir);
+        }
+
+        Path filePath = storageDir.resolve(uniqueFilename);
+
+        boolean compress = compressionEnabled && compressedExtensions.contains(fileExtension.toLowerCase(Locale.ROOT));
+        if (compress) {
+            try (InputStream in = file.getInputStream();
+                 OutputStream out = createCompressedOutput(filePath)) {
+                in.transferTo(out);
+            }
+        } else {
+            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        Work work = new Work();
+        work.setStudentName(studentName);
+        work.setAssignmentName(assignmentName);
+        work.setFilePath(filePath.toString());
+        work.setContentEncoding(compress ? ContentEncoding.GZIP : ContentEncoding.IDENTITY);
+
+        return workRepository.save(work);
+    }
+
+    public Work getWork(Long workId) {
+        return workRepository.findById(workId)
+            .orElseThrow(() -> new RuntimeException("Работа с ID " + workId + " не найдена"));
+    }
+
+    /**
+     * Файл работы в том виде, в каком он хранится (возможно, сжатый):
+     * отдельный файл для новых работ или участок сегмента архива для старых.
+     */
+    public StoredFile getStoredFile(Long workId) throws IOException {
+        Work work = getWork(workId);
+
+        if (isArchived(work)) {
+            String filename = Paths.get(work.getFilePath()).getFileName().toString();
+            return new StoredFile(archiveStorage.open(archiveLocationOf(work), filename), contentEncodingOf(work));
+        }
+
+        Path filePath = Paths.get(work.getFilePath());
+
+        if (!Files.exists(filePath)) {
+            throw new RuntimeException("Файл не найден по пути: " + work.getFilePath());
+        }
+
+        Resource resource = new UrlResource(filePath.toUri());
+        
+        if (!resource.exists() || !resource.isReadable()) {
+            throw new RuntimeException("Не удалось прочитать файл: " + work.getFilePath());
+        }
+
+        return new StoredFile(resource, contentEncodingOf(work));
+    }
+
+    /**
+     * Поток с исходным содержимым файла работы, сжатые файлы распаковываются на лету.
+     */
+    public InputStream openStream(Work work) throws IOException {
+        InputStream in = isArchived(work)
+            ? archiveStorage.openStream(archiveLocationOf(work))
+            : Files.newInputStream(Paths.get(work.getFilePath()));
+        return ContentEncoding.GZIP.equals(contentEncodingOf(work)) ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public OutputStream createCompressedOutput(Path path) throws IOException {
+        return new GZIPOutputStream(Files.newOutputStream(path), 64 * 1024);
+    }
+
+    private boolean isArchived(Work work) {
+        return work.getArchiveSegment() != null;
+    }
+
+    private ArchiveStorage.Location archiveLocationOf(Work work) {
+        return new ArchiveStorage.Location(work.getArchiveSegment(), work.getArchiveOffset(), work.getArchiveLength());
+    }
+
+    private String contentEncodingOf(Work work) {
+        return work.getContentEncoding() != null ? work.getContentEncoding() : ContentEncoding.IDENTITY;
+    }
+
+}
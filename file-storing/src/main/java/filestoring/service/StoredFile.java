@@ -0,0 +1,27 @@
+package filestoring.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.core.io.Resource;
+
+import contracts.ContentEncoding;
+
+/**
+ * Файл в хранилище в том виде, в каком он лежит на диске, и его кодировка (identity или gzip).
+ */
+public record StoredFile(Resource resource, String contentEncoding) {
+
+    public boolean isGzip() {
+        return ContentEncoding.GZIP.equals(contentEncoding);
+    }
+
+    /**
+     * Поток с исходным содержимым: сжатый файл распаковывается на лету.
+     */
+    public InputStream openDecoded() throws IOException {
+        InputStream in = resource.getInputStream();
+        return isGzip() ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+}
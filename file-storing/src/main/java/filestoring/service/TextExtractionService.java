@@ -0,0 +1,163 @@
+package filestoring.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+
+import contracts.ContentEncoding;
+import filestoring.entity.Work;
+import filestoring.extraction.TextExtractor;
+import filestoring.repository.WorkRepository;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Извлекает текст из загруженных документов один раз, в фоне после загрузки,
+ * и кеширует его в файле рядом с оригиналом. Форматы без экстрактора (txt, md)
+ * отдаются как есть.
+ */
+@Service
+public class TextExtractionService {
+
+    private static final String TEXT_SUFFIX = ".txt";
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final WorkRepository workRepository;
+    private final FileStorageService fileStorageService;
+    private final List<TextExtractor> extractors;
+    private final ExecutorService executor;
+    private final Map<Long, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    public TextExtractionService(WorkRepository workRepository, FileStorageService fileStorageService,
+                                 List<TextExtractor> extractors,
+                                 @Value("${text.extraction.threads:2}") int threads) {
+        this.workRepository = workRepository;
+        this.fileStorageService = fileStorageService;
+        this.extractors = extractors;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public void scheduleExtraction(Work work) {
+        TextExtractor extractor = findExtractor(work);
+        if (extractor != null) {
+            extractAsync(work, extractor);
+        }
+    }
+
+    public StoredFile getText(Long workId) throws IOException {
+        Work work = workRepository.findById(workId)
+            .orElseThrow(() -> new RuntimeException("Работа с ID " + workId + " не найдена"));
+
+        TextExtractor extractor = findExtractor(work);
+        if (extractor == null) {
+            return fileStorageService.getStoredFile(workId);
+        }
+
+        if (work.getTextPath() != null) {
+            Path textPath = Paths.get(work.getTextPath());
+            if (Files.exists(textPath)) {
+                return textFile(textPath);
+            }
+        }
+
+        // Фоновое извлечение еще не завершилось (или кеш удален) - ждем его или запускаем заново
+        try {
+            return textFile(extractAsync(work, extractor).join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Не удалось извлечь текст работы " + workId, e.getCause());
+        }
+    }
+
+    private CompletableFuture<Path> extractAsync(Work work, TextExtractor extractor) {
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(work.getId(), created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(extract(work, extractor));
+                } catch (Exception e) {
+                    System.err.println("Ошибка при извлечении текста для workId=" + work.getId() + ": " + e.getMessage());
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(work.getId(), created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Пул остановлен: иначе запись осталась бы в inFlight и getText ждал бы ее вечно
+            inFlight.remove(work.getId(), created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private Path extract(Work work, TextExtractor extractor) throws IOException {
+        boolean compress = fileStorageService.isCompressionEnabled();
+        Path textPath = Paths.get(work.getFilePath() + TEXT_SUFFIX + (compress ? GZIP_SUFFIX : ""));
+        Path tempPath = Paths.get(textPath + ".tmp");
+
+        try (InputStream in = fileStorageService.openStream(work);
+             OutputStream stream = compress ? fileStorageService.createCompressedOutput(tempPath) : Files.newOutputStream(tempPath);
+             Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8))) {
+            extractor.extract(in, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        Files.move(tempPath, textPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        workRepository.updateTextPath(work.getId(), textPath.toString());
+        return textPath;
+    }
+
+    private StoredFile textFile(Path textPath) {
+        String encoding = textPath.toString().endsWith(GZIP_SUFFIX) ? ContentEncoding.GZIP : ContentEncoding.IDENTITY;
+        return new StoredFile(new FileSystemResource(textPath), encoding);
+    }
+
+    private TextExtractor findExtractor(Work work) {
+        String extension = extensionOf(work.getFilePath());
+        for (TextExtractor extractor : extractors) {
+            if (extractor.supports(extension)) {
+                return extractor;
+            }
+        }
+        return null;
+    }
+
+    private static String extensionOf(String path) {
+        String fileName = Paths.get(path).getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot).toLowerCase(Locale.ROOT) : "";
+    }
+}
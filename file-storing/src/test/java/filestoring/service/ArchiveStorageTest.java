@@ -0,0 +1,93 @@
+package filestoring.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+class ArchiveStorageTest {
+
+    @TempDir
+    Path dir;
+
+    private ArchiveStorage storage(DataSize segmentSize) throws IOException {
+        ArchiveStorage storage = new ArchiveStorage();
+        ReflectionTestUtils.setField(storage, "archivePath", dir.resolve("archive").toString());
+        ReflectionTestUtils.setField(storage, "segmentSize", segmentSize);
+        storage.init();
+        return storage;
+    }
+
+    private Path source(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    private static String read(ArchiveStorage storage, ArchiveStorage.Location location) throws IOException {
+        try (InputStream in = storage.openStream(location)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void readsBackAppendedFiles() throws IOException {
+        ArchiveStorage storage = storage(DataSize.ofMegabytes(1));
+        ArchiveStorage.Location first = storage.append(1, source("a.txt", "первая работа"));
+        ArchiveStorage.Location second = storage.append(2, source("b.txt", "вторая"));
+
+        assertEquals(new ArchiveStorage.Location(1, 0, first.length()), first);
+        assertEquals(new ArchiveStorage.Location(1, first.length(), "вторая".getBytes(StandardCharsets.UTF_8).length),
+            second);
+        assertEquals("первая работа", read(storage, first));
+        assertEquals("вторая", read(storage, second));
+        assertEquals(first.length(), storage.open(first, "a.txt").contentLength());
+    }
+
+    @Test
+    void writesFixedSizeIndexRecords() throws IOException {
+        ArchiveStorage storage = storage(DataSize.ofMegabytes(1));
+        ArchiveStorage.Location first = storage.append(10, source("a.txt", "abc"));
+        ArchiveStorage.Location second = storage.append(20, source("b.txt", "defgh"));
+
+        byte[] index = Files.readAllBytes(dir.resolve("archive/segment-000001.idx"));
+        ByteBuffer expected = ByteBuffer.allocate(6 * Long.BYTES)
+            .putLong(10).putLong(first.offset()).putLong(first.length())
+            .putLong(20).putLong(second.offset()).putLong(second.length());
+        assertArrayEquals(expected.array(), index);
+    }
+
+    @Test
+    void startsNewSegmentWhenCurrentIsFull() throws IOException {
+        ArchiveStorage storage = storage(DataSize.ofBytes(8));
+        ArchiveStorage.Location first = storage.append(1, source("a.txt", "12345"));
+        ArchiveStorage.Location second = storage.append(2, source("b.txt", "67890"));
+
+        assertEquals(1, first.segment());
+        assertEquals(new ArchiveStorage.Location(2, 0, 5), second);
+        assertEquals("12345", read(storage, first));
+        assertEquals("67890", read(storage, second));
+        assertEquals(Long.BYTES * 3, Files.size(dir.resolve("archive/segment-000002.idx")));
+    }
+
+    @Test
+    void continuesLastSegmentAfterRestart() throws IOException {
+        ArchiveStorage.Location first = storage(DataSize.ofBytes(8)).append(1, source("a.txt", "12345"));
+        storage(DataSize.ofBytes(8)).append(2, source("b.txt", "67890"));
+
+        ArchiveStorage restarted = storage(DataSize.ofBytes(8));
+        ArchiveStorage.Location third = restarted.append(3, source("c.txt", "xy"));
+
+        assertEquals(new ArchiveStorage.Location(2, 5, 2), third);
+        assertEquals("12345", read(restarted, first));
+        assertEquals("xy", read(restarted, third));
+    }
+}
@@ -0,0 +1,145 @@
+package gateaway.cache;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+
+import contracts.ContentEncoding;
+
+/**
+ * Закешированный ответ сервиса. Тело хранится в куче или вне ее (direct ByteBuffer),
+ * ETag вычисляется по содержимому один раз при сохранении.
+ */
+public class CachedResponse {
+
+    private final ByteBuffer body;
+    private final MediaType contentType;
+    private final String contentEncoding;
+    private final String etag;
+    private final long expiresAtNanos;
+
+    CachedResponse(byte[] bytes, MediaType contentType, String contentEncoding, boolean offHeap, long ttlNanos) {
+        if (offHeap) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).flip();
+            this.body = buffer.asReadOnlyBuffer();
+        } else {
+            this.body = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        }
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
+        this.etag = computeEtag(bytes);
+        this.expiresAtNanos = System.nanoTime() + ttlNanos;
+    }
+
+    public MediaType getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Тело сжато gzip: файл хранится и кешируется в том виде, в каком его отдал сервис хранения.
+     */
+    public boolean isGzip() {
+        return ContentEncoding.GZIP.equalsIgnoreCase(contentEncoding);
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public int size() {
+        return body.capacity();
+    }
+
+    boolean isExpired(long nowNanos) {
+        return nowNanos - expiresAtNanos > 0;
+    }
+
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[body.capacity()];
+        body.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Тело как Resource: при отдаче клиенту копируется через небольшой буфер,
+     * без копирования всего файла в кучу.
+     */
+    public Resource asResource() {
+        return new ByteBufferResource(body.duplicate());
+    }
+
+    private static String computeEtag(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Ошибка при вычислении ETag", e);
+        }
+    }
+
+    private static final class ByteBufferResource extends AbstractResource {
+        private final ByteBuffer buffer;
+
+        ByteBufferResource(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public String getDescription() {
+            return "cached response [" + buffer.capacity() + " bytes]";
+        }
+
+        @Override
+        public long contentLength() {
+            return buffer.capacity();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            ByteBuffer source = buffer.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return source.hasRemaining() ? source.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] target, int offset, int length) {
+                    if (!source.hasRemaining()) {
+                        return -1;
+                    }
+                    int count = Math.min(length, source.remaining());
+                    source.get(target, offset, count);
+                    return count;
+                }
+
+                @Override
+                public int available() {
+                    return source.remaining();
+                }
+            };
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package gateaway.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Кеш ответов сервисов в gateway.
+ * Одновременные одинаковые запросы объединяются в один запрос к сервису,
+ * записи живут ограниченное время и вытесняются по LRU при превышении общего размера.
+ */
+@Component
+public class ResponseCache {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private long totalBytes;
+
+    public ResponseCache(@Value("${gateway.cache.max-size:128MB}") DataSize maxSize) {
+        this.maxBytes = maxSize.toBytes();
+        // Одна запись не должна вытеснять весь кеш
+        this.maxEntryBytes = maxBytes / 8;
+    }
+
+    /**
+     * Возвращает ответ из кеша или загружает его через {@code fetcher}.
+     * Пока идет загрузка, остальные запросы с тем же ключом ждут ее результата.
+     * Ошибки сервиса (например, 404) не кешируются и пробрасываются всем ожидающим.
+     */
+    public CachedResponse get(String key, Duration ttl, boolean offHeap, Supplier<ResponseEntity<byte[]>> fetcher) {
+        CachedResponse cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<CachedResponse> created = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            ResponseEntity<byte[]> response = fetcher.get();
+            byte[] body = response.getBody() != null ? response.getBody() : new byte[0];
+            MediaType contentType = response.getHeaders().getContentType();
+            String contentEncoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+            CachedResponse loaded = new CachedResponse(body, contentType, contentEncoding, offHeap, ttl.toNanos());
+            store(key, loaded);
+            created.complete(loaded);
+            return loaded;
+        } catch (Throwable e) {
+            // В том числе Error (например, нехватка direct-памяти): иначе ожидающие зависнут навсегда
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    public synchronized void invalidate(String key) {
+        CachedResponse removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.size();
+        }
+    }
+
+    private synchronized CachedResponse lookup(String key) {
+        CachedResponse cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpired(System.nanoTime())) {
+            entries.remove(key);
+            totalBytes -= cached.size();
+            return null;
+        }
+        return cached;
+    }
+
+    private synchronized void store(String key, CachedResponse response) {
+        if (response.size() > maxEntryBytes) {
+            return;
+        }
+        CachedResponse previous = entries.put(key, response);
+        if (previous != null) {
+            totalBytes -= previous.size();
+        }
+        totalBytes += response.size();
+
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().size();
+            eldest.remove();
+        }
+    }
+
+    private static CachedResponse await(CompletableFuture<CachedResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
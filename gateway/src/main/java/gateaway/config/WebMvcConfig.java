@@ -0,0 +1,23 @@
+package gateaway.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import gateaway.ratelimit.RateLimitInterceptor;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+    private final RateLimitInterceptor rateLimitInterceptor;
+
+    public WebMvcConfig(RateLimitInterceptor rateLimitInterceptor) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Ограничиваются только операции, которые ставят работу в очередь анализа
+        registry.addInterceptor(rateLimitInterceptor)
+            .addPathPatterns("/api/files", "/api/reports/analyze/**");
+    }
+}
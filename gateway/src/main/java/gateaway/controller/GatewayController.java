@@ -1,9 +1,15 @@
 package gateaway.controller;
 
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.LinkedMultiValueMap;
@@ -12,16 +18,26 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import contracts.AnalysisPriority;
+import contracts.ContentEncoding;
+import contracts.WorkInfo;
+import gateaway.cache.CachedResponse;
+import gateaway.cache.ResponseCache;
+import gateaway.ratelimit.RateLimitInterceptor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 
 
@@ -29,10 +45,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/api")
 @Tag(name = "API Gateway", description = "API Gateway для системы антиплагиата")
 public class GatewayController {
+    private static final Logger log = LoggerFactory.getLogger(GatewayController.class);
+
     private final WebClient webClient;
+    private final ResponseCache responseCache;
 
-    public GatewayController(WebClient webClient){
+    public GatewayController(WebClient webClient, ResponseCache responseCache){
         this.webClient = webClient;
+        this.responseCache = responseCache;
     }
 
     @Value("${file.storing.service.url}")
@@ -41,9 +61,25 @@ public class GatewayController {
     @Value("${file.analysis.service.url}")
     private String fileAnalysisServiceUrl;
 
+    @Value("${gateway.cache.files-ttl:10m}")
+    private Duration filesTtl;
+
+    @Value("${gateway.cache.reports-ttl:5s}")
+    private Duration reportsTtl;
+
+    @Value("${gateway.cache.wordcloud-ttl:10m}")
+    private Duration wordCloudTtl;
+
+    @Value("${gateway.cache.off-heap:true}")
+    private boolean offHeap;
+
+    @Value("${gateway.analysis.retries:6}")
+    private int analysisRetries;
+
     @PostMapping(value = "/files", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Загрузить файл", description = "Загружает файл работы студента. После загрузки автоматически запускается анализ.")
     @ApiResponse(responseCode = "200", description = "Файл успешно загружен")
+    @ApiResponse(responseCode = "429", description = "Превышен лимит запросов курса, см. Retry-After")
     @ApiResponse(responseCode = "503", description = "Сервис недоступен")
     public ResponseEntity<?> uploadFile(
             @Parameter(description = "Файл для загрузки", required = true) 
@@ -58,26 +94,28 @@ public class GatewayController {
             body.add("studentName", studentName);
             body.add("assignmentName", assignmentName);
             
-            Object response = webClient.post()
+            WorkInfo response = webClient.post()
                 .uri(fileStoringServiceUrl + "/files")
                 .contentType(MediaType.MULTIPART_FORM_DATA)
                 .bodyValue(body)
                 .retrieve()
-                .bodyToMono(Object.class)
+                .bodyToMono(WorkInfo.class)
                 .block();
             
             if (response != null) {
-                try {
-                    Long workId = extractWorkId(response);
-                    if (workId != null) {
-                       
-                        webClient.post()
-                            .uri(fileAnalysisServiceUrl + "/reports/analyze/" + workId)
-                            .retrieve()
-                            .bodyToMono(Object.class)
-                            .subscribe(); 
-                    }
-                } catch (Exception e) {}
+                // Анализ после загрузки фоновый: при массовой загрузке не должен задерживать интерактивные проверки
+                webClient.post()
+                    .uri(fileAnalysisServiceUrl + "/reports/analyze/" + response.id())
+                    .header(AnalysisPriority.HEADER, AnalysisPriority.BULK)
+                    .retrieve()
+                    .bodyToMono(Object.class)
+                    // 503 - очередь анализа переполнена: повторяем с нарастающей паузой, пока она не разгрузится
+                    .retryWhen(Retry.backoff(analysisRetries, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .filter(WebClientResponseException.ServiceUnavailable.class::isInstance))
+                    .doOnError(e -> log.warn("Анализ работы {} после загрузки не выполнен: {}", response.id(), e.getMessage()))
+                    .onErrorResume(e -> Mono.empty())
+                    .subscribe(analysis -> responseCache.invalidate("reports:" + response.id()));
             }
             return ResponseEntity.ok(response);
         } catch (WebClientResponseException e) {
@@ -87,41 +125,37 @@ public class GatewayController {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private Long extractWorkId(Object response) {
-        try {
-            if (response instanceof java.util.Map) {
-                java.util.Map<String, Object> map = (java.util.Map<String, Object>) response;
-                Object idObj = map.get("id");
-                if (idObj instanceof Number) {
-                    return ((Number) idObj).longValue();
-                }
-            }
-        } catch (Exception e) {
-        
-        }
-        return null;
-    }
-
     @GetMapping("/files/{id}")
     @Operation(summary = "Получить файл", description = "Получает файл по ID работы")
     @ApiResponse(responseCode = "200", description = "Файл найден")
     @ApiResponse(responseCode = "404", description = "Файл не найден")
     @ApiResponse(responseCode = "503", description = "Сервис недоступен")
     public ResponseEntity<Resource> getFile(
-            @Parameter(description = "ID работы") @PathVariable Long id) {
+            @Parameter(description = "ID работы") @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            Resource resource = webClient.get()
+            // Файл запрашивается сжатым и в таком виде хранится в кеше
+            CachedResponse file = responseCache.get("file:" + id, filesTtl, offHeap, () -> webClient.get()
                 .uri(fileStoringServiceUrl + "/files/" + id)
+                .header(HttpHeaders.ACCEPT_ENCODING, ContentEncoding.GZIP)
                 .retrieve()
-                .bodyToMono(Resource.class)
-                .block();
+                .toEntity(byte[].class)
+                .block());
             
-            if (resource == null) {
-                return ResponseEntity.notFound().build();
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(file.getContentType() != null ? file.getContentType() : MediaType.APPLICATION_OCTET_STREAM);
+            if (!file.isGzip()) {
+                return response.eTag(file.getEtag()).body(file.asResource());
             }
-            
-            return ResponseEntity.ok(resource);
+            if (ContentEncoding.acceptsGzip(acceptEncoding)) {
+                // У сжатого представления свой ETag
+                return response.eTag(file.getEtag().replaceFirst("\"$", "-gzip\""))
+                    .header(HttpHeaders.CONTENT_ENCODING, ContentEncoding.GZIP)
+                    .body(file.asResource());
+            }
+            return response.eTag(file.getEtag())
+                .body(new InputStreamResource(new GZIPInputStream(file.asResource().getInputStream())));
         } catch (WebClientResponseException.NotFound e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -134,21 +168,23 @@ public class GatewayController {
     @ApiResponse(responseCode = "200", description = "Отчеты найдены")
     @ApiResponse(responseCode = "404", description = "Отчеты не найдены")
     @ApiResponse(responseCode = "503", description = "Сервис недоступен")
-    public ResponseEntity<?> getReports(
+    public ResponseEntity<Resource> getReports(
             @Parameter(description = "ID работы") @PathVariable Long workId) {
         try {
-            List<?> reports = webClient.get()
+            CachedResponse reports = responseCache.get("reports:" + workId, reportsTtl, false, () -> webClient.get()
                 .uri(fileAnalysisServiceUrl + "/reports/" + workId)
                 .retrieve()
-                .bodyToFlux(Object.class)
-                .collectList()
-                .block();
+                .toEntity(byte[].class)
+                .block());
             
-            if (reports == null || reports.isEmpty()) {
+            if (isEmptyList(reports)) {
                 return ResponseEntity.notFound().build();
             }
             
-            return ResponseEntity.ok(reports);
+            return ResponseEntity.ok()
+                .eTag(reports.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(reports.asResource());
         } catch (WebClientResponseException.NotFound e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -159,16 +195,25 @@ public class GatewayController {
     @PostMapping("/reports/analyze/{workId}")
     @Operation(summary = "Запустить анализ", description = "Запускает анализ файла на плагиат")
     @ApiResponse(responseCode = "200", description = "Анализ выполнен")
+    @ApiResponse(responseCode = "429", description = "Превышен лимит запросов курса, см. Retry-After")
     @ApiResponse(responseCode = "500", description = "Ошибка при анализе")
     @ApiResponse(responseCode = "503", description = "Сервис недоступен")
     public ResponseEntity<?> analyzeFile(
-            @Parameter(description = "ID работы для анализа") @PathVariable Long workId) {
+            @Parameter(description = "ID работы для анализа") @PathVariable Long workId,
+            @Parameter(hidden = true)
+            @RequestAttribute(name = RateLimitInterceptor.PRIORITY_ATTRIBUTE, required = false) String priority) {
         try {
+            // Приоритет назначает RateLimitInterceptor по частоте запусков курса; заголовок клиента не учитывается
+            if (priority == null) {
+                priority = AnalysisPriority.INTERACTIVE;
+            }
             Object analysis = webClient.post()
                 .uri(fileAnalysisServiceUrl + "/reports/analyze/" + workId)
+                .header(AnalysisPriority.HEADER, priority)
                 .retrieve()
                 .bodyToMono(Object.class)
                 .block();
+            responseCache.invalidate("reports:" + workId);
             
             if (analysis == null) {
                 return ResponseEntity.status(500).build();
@@ -186,26 +231,33 @@ public class GatewayController {
     @ApiResponse(responseCode = "200", description = "Облако слов успешно сгенерировано")
     @ApiResponse(responseCode = "404", description = "Работа не найдена")
     @ApiResponse(responseCode = "503", description = "Сервис недоступен")
-    public ResponseEntity<byte[]> getWordCloud(
+    public ResponseEntity<Resource> getWordCloud(
             @Parameter(description = "ID работы") @PathVariable Long workId) {
         try {
-            byte[] imageBytes = webClient.get()
+            // Генерация облака слов дорогая, поэтому одновременные запросы одной работы объединяются
+            CachedResponse image = responseCache.get("wordcloud:" + workId, wordCloudTtl, offHeap, () -> webClient.get()
                 .uri(fileAnalysisServiceUrl + "/reports/" + workId + "/wordcloud")
                 .retrieve()
-                .bodyToMono(byte[].class)
-                .block();
+                .toEntity(byte[].class)
+                .block());
             
-            if (imageBytes == null) {
+            if (image.size() == 0) {
                 return ResponseEntity.notFound().build();
             }
             
             return ResponseEntity.ok()
-                .contentType(org.springframework.http.MediaType.IMAGE_PNG)
-                .body(imageBytes);
+                .eTag(image.getEtag())
+                .contentType(MediaType.IMAGE_PNG)
+                .body(image.asResource());
         } catch (WebClientResponseException.NotFound e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.status(503).build();
         }
     }
+
+    private boolean isEmptyList(CachedResponse reports) {
+        String json = new String(reports.toByteArray(), StandardCharsets.UTF_8).trim();
+        return json.isEmpty() || json.equals("[]");
+    }
 }
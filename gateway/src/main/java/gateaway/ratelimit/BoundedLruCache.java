@@ -0,0 +1,35 @@
+package gateaway.ratelimit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Потокобезопасная карта ограниченного размера: при переполнении вытесняется
+ * запись, к которой дольше всего не обращались. Все операции - O(1).
+ */
+public class BoundedLruCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries;
+
+    public BoundedLruCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        return entries.computeIfAbsent(key, factory);
+    }
+}
@@ -0,0 +1,51 @@
+package gateaway.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import contracts.WorkInfo;
+
+/**
+ * Курс (задание) работы по данным сервиса хранения, а не по заголовкам клиента:
+ * подменой заголовка нельзя получить новый лимит. Задание работы не меняется,
+ * поэтому ответы кешируются.
+ */
+@Component
+public class CourseResolver {
+
+    /** Ключ для работ, курс которых не удалось определить: у них общий лимит. */
+    public static final String UNKNOWN = "unknown";
+
+    private final WebClient webClient;
+    private final BoundedLruCache<Long, String> assignments;
+
+    @Value("${file.storing.service.url}")
+    private String fileStoringServiceUrl;
+
+    public CourseResolver(WebClient webClient, @Value("${gateway.rate-limit.max-keys:10000}") int maxKeys) {
+        this.webClient = webClient;
+        this.assignments = new BoundedLruCache<>(maxKeys);
+    }
+
+    public String courseOfWork(Long workId) {
+        String cached = assignments.get(workId);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            WorkInfo work = webClient.get()
+                .uri(fileStoringServiceUrl + "/files/" + workId + "/info")
+                .retrieve()
+                .bodyToMono(WorkInfo.class)
+                .block();
+            if (work == null || work.assignmentName() == null) {
+                return UNKNOWN;
+            }
+            assignments.put(workId, work.assignmentName());
+            return work.assignmentName();
+        } catch (Exception e) {
+            return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package gateaway.ratelimit;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import contracts.AnalysisPriority;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Ограничение загрузок и запусков анализа по курсу: у каждого курса свой token bucket,
+ * поэтому массовая загрузка одного курса не вытесняет остальные. Курс загрузки - задание
+ * из формы (оно и сохраняется в работе), курс запуска анализа - задание сохраненной работы.
+ *
+ * <p>Приоритет анализа тоже определяется здесь, а не клиентом: у курса есть небольшой
+ * интерактивный бюджет, запуски сверх него (массовая перепроверка) идут как фоновые.
+ * Результат кладется в атрибут запроса {@link #PRIORITY_ATTRIBUTE}.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String PRIORITY_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".priority";
+
+    private final CourseResolver courseResolver;
+    private final BoundedLruCache<String, CourseLimits> limits;
+
+    @Value("${gateway.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gateway.rate-limit.capacity:20}")
+    private double capacity;
+
+    @Value("${gateway.rate-limit.refill-per-second:5}")
+    private double refillPerSecond;
+
+    @Value("${gateway.rate-limit.interactive-capacity:5}")
+    private double interactiveCapacity;
+
+    @Value("${gateway.rate-limit.interactive-per-second:0.5}")
+    private double interactivePerSecond;
+
+    public RateLimitInterceptor(CourseResolver courseResolver,
+                                @Value("${gateway.rate-limit.max-keys:10000}") int maxKeys) {
+        this.courseResolver = courseResolver;
+        this.limits = new BoundedLruCache<>(maxKeys);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || !HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        Long workId = pathWorkId(request);
+        String course = workId != null ? courseResolver.courseOfWork(workId) : request.getParameter("assignmentName");
+        if (course == null || course.isBlank()) {
+            course = CourseResolver.UNKNOWN;
+        }
+        CourseLimits courseLimits = limits.computeIfAbsent(course.trim(), key -> new CourseLimits(
+            new TokenBucket(capacity, refillPerSecond), new TokenBucket(interactiveCapacity, interactivePerSecond)));
+
+        long waitNanos = courseLimits.admission().tryAcquire();
+        if (waitNanos > 0) {
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((long) Math.ceil(waitNanos / 1e9)));
+            return false;
+        }
+        if (workId != null) {
+            request.setAttribute(PRIORITY_ATTRIBUTE, courseLimits.interactive().tryAcquire() == 0
+                ? AnalysisPriority.INTERACTIVE : AnalysisPriority.BULK);
+        }
+        return true;
+    }
+
+    // workId из пути /api/reports/analyze/{workId}; для загрузки файла его нет
+    private static Long pathWorkId(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map<?, ?> map && map.get("workId") instanceof String value) {
+            try {
+                return Long.valueOf(value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private record CourseLimits(TokenBucket admission, TokenBucket interactive) {
+    }
+}
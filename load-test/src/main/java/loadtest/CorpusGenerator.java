@@ -0,0 +1,98 @@
+package loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Синтетический корпус работ с заданной долей плагиата.
+ * Часть плагиата - точные копии, часть - копии с "обфускацией" (замена букв похожими
+ * латинскими, лишние пробелы, другие переводы строк), которую должна снимать нормализация.
+ */
+public class CorpusGenerator {
+
+    private static final String[] VOCABULARY = {
+        "алгоритм", "система", "данные", "анализ", "сервис", "запрос", "ответ", "модель", "граф",
+        "дерево", "поиск", "сортировка", "память", "поток", "процесс", "очередь", "задача",
+        "решение", "программа", "функция", "класс", "объект", "метод", "интерфейс", "тест",
+        "algorithm", "system", "service", "request", "thread", "queue", "memory", "storage",
+        "работа", "студент", "проверка", "результат", "время", "сложность", "структура"
+    };
+
+    private static final String[] ASSIGNMENTS = {"КПО ДЗ 1", "КПО ДЗ 2", "КПО ДЗ 3", "АиСД КР 1", "ООП ДЗ 4"};
+
+    private static final String CYRILLIC = "аеорсух";
+    private static final String LATIN = "aeopcyx";
+
+    private final Random random;
+    private final double plagiarismRate;
+    private final List<SyntheticWork> generated = new ArrayList<>();
+    private final List<String> originals = new ArrayList<>();
+
+    public CorpusGenerator(long seed, double plagiarismRate) {
+        this.random = new Random(seed);
+        this.plagiarismRate = plagiarismRate;
+    }
+
+    public synchronized SyntheticWork next() {
+        return next(ASSIGNMENTS[random.nextInt(ASSIGNMENTS.length)]);
+    }
+
+    /** Следующая работа заданного задания (курса). */
+    public synchronized SyntheticWork next(String assignment) {
+        int index = generated.size();
+        String student = "Студент " + index;
+
+        String text;
+        Integer sourceIndex = null;
+        if (!originals.isEmpty() && random.nextDouble() < plagiarismRate) {
+            sourceIndex = random.nextInt(originals.size());
+            text = originals.get(sourceIndex);
+            if (random.nextBoolean()) {
+                text = obfuscate(text);
+            }
+        } else {
+            text = generateText(200 + random.nextInt(1800));
+            originals.add(text);
+        }
+
+        SyntheticWork work = new SyntheticWork(index, student, assignment,
+            "work_" + index + ".txt", text.getBytes(StandardCharsets.UTF_8), sourceIndex != null);
+        generated.add(work);
+        return work;
+    }
+
+    private String generateText(int words) {
+        StringBuilder text = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(i % 12 == 0 ? ".\n" : " ");
+            }
+            text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return text.append('.').toString();
+    }
+
+    private String obfuscate(String text) {
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int confusable = CYRILLIC.indexOf(c);
+            if (confusable >= 0 && random.nextInt(4) == 0) {
+                result.append(LATIN.charAt(confusable));
+            } else if (c == '\n') {
+                result.append("\r\n");
+            } else if (c == ' ' && random.nextInt(10) == 0) {
+                result.append("  ");
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    public record SyntheticWork(int index, String studentName, String assignmentName,
+                                String fileName, byte[] content, boolean plagiarized) {
+    }
+}
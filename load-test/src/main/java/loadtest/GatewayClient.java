@@ -0,0 +1,122 @@
+package loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP-клиент к эндпоинтам {@code GatewayController}.
+ */
+public class GatewayClient {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private static final long DEFAULT_RETRY_AFTER_MILLIS = 1000;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final String baseUrl;
+
+    public GatewayClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public Result upload(CorpusGenerator.SyntheticWork work) throws IOException, InterruptedException {
+        String boundary = "----loadtest" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(work.content().length + 512);
+        writePart(body, boundary, "studentName", null, work.studentName().getBytes(StandardCharsets.UTF_8));
+        writePart(body, boundary, "assignmentName", null, work.assignmentName().getBytes(StandardCharsets.UTF_8));
+        writePart(body, boundary, "file", work.fileName(), work.content());
+        body.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/files"))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+            .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        Long workId = null;
+        Matcher matcher = ID_PATTERN.matcher(response.body());
+        if (response.statusCode() == 200 && matcher.find()) {
+            workId = Long.parseLong(matcher.group(1));
+        }
+        return new Result(response.statusCode(), workId, retryAfterMillis(response));
+    }
+
+    public Result getReports(long workId) throws IOException, InterruptedException {
+        return get("/api/reports/" + workId);
+    }
+
+    public Result getFile(long workId) throws IOException, InterruptedException {
+        return get("/api/files/" + workId);
+    }
+
+    public Result getWordCloud(long workId) throws IOException, InterruptedException {
+        return get("/api/reports/" + workId + "/wordcloud");
+    }
+
+    public Result analyze(long workId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/reports/analyze/" + workId))
+            .timeout(Duration.ofSeconds(60))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        return new Result(response.statusCode(), workId, retryAfterMillis(response));
+    }
+
+    private Result get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        return new Result(response.statusCode(), null, retryAfterMillis(response));
+    }
+
+    // Gateway отдает Retry-After в секундах; без заголовка ждем секунду
+    private static long retryAfterMillis(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+            .map(value -> {
+                try {
+                    return Math.max(1, Long.parseLong(value.trim())) * 1000;
+                } catch (NumberFormatException e) {
+                    return DEFAULT_RETRY_AFTER_MILLIS;
+                }
+            })
+            .orElse(DEFAULT_RETRY_AFTER_MILLIS);
+    }
+
+    private static void writePart(ByteArrayOutputStream body, String boundary, String name, String fileName,
+                                  byte[] content) throws IOException {
+        StringBuilder header = new StringBuilder()
+            .append("--").append(boundary).append("\r\n")
+            .append("Content-Disposition: form-data; name=\"").append(name).append('"');
+        if (fileName != null) {
+            header.append("; filename=\"").append(fileName).append("\"\r\n")
+                .append("Content-Type: text/plain");
+        }
+        header.append("\r\n\r\n");
+        body.write(header.toString().getBytes(StandardCharsets.UTF_8));
+        body.write(content);
+        body.write("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param retryAfterMillis пауза перед повтором, имеет смысл для ответа 429
+     */
+    public record Result(int status, Long workId, long retryAfterMillis) {
+        public boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Латентности запросов по операциям. Хранит все замеры, чтобы перцентили были точными.
+ */
+public class LatencyRecorder {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+
+    public GatewayClient.Result time(String operation, Call call) throws Exception {
+        Samples target = samples.computeIfAbsent(operation, key -> new Samples());
+        long started = System.nanoTime();
+        try {
+            GatewayClient.Result result = call.execute();
+            target.add(System.nanoTime() - started, result.status());
+            return result;
+        } catch (Exception e) {
+            target.add(System.nanoTime() - started, 0);
+            throw e;
+        }
+    }
+
+    public Map<String, Summary> summarize(long elapsedNanos) {
+        Map<String, Summary> result = new TreeMap<>();
+        samples.forEach((operation, operationSamples) -> result.put(operation, operationSamples.summarize(elapsedNanos)));
+        return result;
+    }
+
+    @FunctionalInterface
+    public interface Call {
+        GatewayClient.Result execute() throws Exception;
+    }
+
+    /**
+     * @param count запросы без отказов 429; по ним же считаются пропускная способность и перцентили
+     * @param errors ответы 5xx и ошибки соединения (статус 0)
+     * @param throttled ответы 429 от ограничения частоты в gateway: не ошибки, но и не обслуженные запросы
+     */
+    public record Summary(int count, int errors, int throttled, Map<Integer, Integer> statuses, double throughput,
+                          double p50Millis, double p90Millis, double p99Millis, double maxMillis) {
+    }
+
+    private static final class Samples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+        synchronized void add(long nanos, int status) {
+            statuses.merge(status, 1, Integer::sum);
+            if (status == TOO_MANY_REQUESTS) {
+                // Мгновенный отказ gateway не должен занижать перцентили и завышать RPS
+                return;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        synchronized Summary summarize(long elapsedNanos) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int errors = 0;
+            for (Map.Entry<Integer, Integer> entry : statuses.entrySet()) {
+                if (entry.getKey() == 0 || entry.getKey() >= 500) {
+                    errors += entry.getValue();
+                }
+            }
+            int throttled = statuses.getOrDefault(TOO_MANY_REQUESTS, 0);
+            return new Summary(count, errors, throttled, new TreeMap<>(statuses), count / (elapsedNanos / 1e9),
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
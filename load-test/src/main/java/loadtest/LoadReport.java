@@ -0,0 +1,73 @@
+package loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Итоговый отчет: p50/p90/p99, пропускная способность и коды ответов по каждой операции.
+ * Печатается в консоль и сохраняется в Markdown и CSV.
+ */
+public class LoadReport {
+
+    private final List<Row> rows = new ArrayList<>();
+
+    public void add(String scenario, LatencyRecorder recorder, long elapsedNanos) {
+        recorder.summarize(elapsedNanos).forEach((operation, summary) -> rows.add(new Row(scenario, operation, summary)));
+    }
+
+    public void print(PrintStream out) {
+        out.println();
+        out.println(toMarkdown());
+    }
+
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("report.md"), toMarkdown(), StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("report.csv"), toCsv(), StandardCharsets.UTF_8);
+    }
+
+    private String toMarkdown() {
+        StringBuilder md = new StringBuilder()
+            .append("| Сценарий | Операция | Запросов | Ошибок | 429 | RPS | p50, мс | p90, мс | p99, мс | max, мс | Коды ответов |\n")
+            .append("|---|---|---|---|---|---|---|---|---|---|---|\n");
+        for (Row row : rows) {
+            LatencyRecorder.Summary s = row.summary();
+            md.append(String.format(Locale.ROOT, "| %s | %s | %d | %d | %d | %.1f | %.1f | %.1f | %.1f | %.1f | %s |%n",
+                row.scenario(), row.operation(), s.count(), s.errors(), s.throttled(), s.throughput(),
+                s.p50Millis(), s.p90Millis(), s.p99Millis(), s.maxMillis(), formatStatuses(s.statuses())));
+        }
+        return md.toString();
+    }
+
+    private String toCsv() {
+        StringBuilder csv = new StringBuilder("scenario,operation,count,errors,throttled,rps,p50_ms,p90_ms,p99_ms,max_ms\n");
+        for (Row row : rows) {
+            LatencyRecorder.Summary s = row.summary();
+            csv.append(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                row.scenario(), row.operation(), s.count(), s.errors(), s.throttled(), s.throughput(),
+                s.p50Millis(), s.p90Millis(), s.p99Millis(), s.maxMillis()));
+        }
+        return csv.toString();
+    }
+
+    private static String formatStatuses(Map<Integer, Integer> statuses) {
+        StringBuilder result = new StringBuilder();
+        statuses.forEach((status, count) -> {
+            if (!result.isEmpty()) {
+                result.append(", ");
+            }
+            result.append(status == 0 ? "нет ответа" : status).append(": ").append(count);
+        });
+        return result.toString();
+    }
+
+    private record Row(String scenario, String operation, LatencyRecorder.Summary summary) {
+    }
+}
@@ -0,0 +1,67 @@
+package loadtest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запуск нагрузочного теста против API Gateway.
+ *
+ * <pre>
+ * java -jar load-test/target/load-test-0.0.1-SNAPSHOT.jar \
+ *     --base-url=http://localhost:8080 --scenario=all --users=50 --duration=60
+ * </pre>
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        String scenarioName = options.getOrDefault("scenario", "all");
+        int users = Integer.parseInt(options.getOrDefault("users", "50"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int works = Integer.parseInt(options.getOrDefault("works", "500"));
+        double plagiarismRate = Double.parseDouble(options.getOrDefault("plagiarism-rate", "0.3"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Path reportDir = Path.of(options.getOrDefault("report-dir", "load-test-report"));
+
+        CorpusGenerator corpus = new CorpusGenerator(seed, plagiarismRate);
+        ScenarioContext context = new ScenarioContext(new GatewayClient(baseUrl), corpus, users, durationSeconds, works);
+
+        List<Scenario> scenarios = new ArrayList<>();
+        if ("all".equals(scenarioName)) {
+            scenarios.addAll(List.of(Scenario.values()));
+        } else {
+            for (String name : scenarioName.split(",")) {
+                scenarios.add(Scenario.fromName(name.trim()));
+            }
+        }
+
+        LoadReport report = new LoadReport();
+        for (Scenario scenario : scenarios) {
+            System.out.println("Сценарий " + scenario.getName() + ": пользователей " + users + ", длительность " + durationSeconds + " с");
+            LatencyRecorder recorder = new LatencyRecorder();
+            long elapsedNanos = scenario.run(context, recorder);
+            report.add(scenario.getName(), recorder, elapsedNanos);
+        }
+
+        report.print(System.out);
+        report.write(reportDir);
+        System.out.println("Отчет сохранен в " + reportDir.toAbsolutePath());
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидался аргумент вида --name=value: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
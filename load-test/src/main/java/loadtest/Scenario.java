@@ -0,0 +1,125 @@
+package loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сценарии нагрузки, моделирующие дедлайн сдачи работ.
+ */
+public enum Scenario {
+
+    /** Массовая загрузка работ перед дедлайном, каждая загрузка запускает анализ */
+    UPLOAD_BURST("upload-burst") {
+        @Override
+        long run(ScenarioContext context, LatencyRecorder recorder) throws Exception {
+            AtomicInteger remaining = new AtomicInteger(context.getWorks());
+            return context.runUsers(() -> {
+                if (remaining.getAndDecrement() <= 0) {
+                    return false;
+                }
+                CorpusGenerator.SyntheticWork work = context.getCorpus().next();
+                GatewayClient.Result result = recorder.time("upload", () -> context.getClient().upload(work));
+                if (result.workId() != null) {
+                    context.addUploaded(result.workId(), work.assignmentName());
+                }
+                return true;
+            });
+        }
+    },
+
+    /** Преподаватели и студенты опрашивают отчеты и скачивают работы */
+    REPORT_POLLING("report-polling") {
+        @Override
+        long run(ScenarioContext context, LatencyRecorder recorder) throws Exception {
+            context.ensureUploaded();
+            return context.runUsers(() -> {
+                long workId = context.randomUploaded();
+                if (ThreadLocalRandom.current().nextInt(10) < 7) {
+                    recorder.time("reports", () -> context.getClient().getReports(workId));
+                } else {
+                    recorder.time("file", () -> context.getClient().getFile(workId));
+                }
+                return true;
+            });
+        }
+    },
+
+    /** Много рецензентов одновременно открывают облака слов одних и тех же работ */
+    WORDCLOUD_FANOUT("wordcloud-fanout") {
+        private static final int HOT_WORKS = 5;
+
+        @Override
+        long run(ScenarioContext context, LatencyRecorder recorder) throws Exception {
+            context.ensureUploaded();
+            List<Long> uploaded = context.getUploaded();
+            List<Long> hot = uploaded.subList(0, Math.min(HOT_WORKS, uploaded.size()));
+            return context.runUsers(() -> {
+                long workId = hot.get(ThreadLocalRandom.current().nextInt(hot.size()));
+                recorder.time("wordcloud", () -> context.getClient().getWordCloud(workId));
+                return true;
+            });
+        }
+    },
+
+    /**
+     * Один курс перепроверяет все свои работы ({@code --works} штук), а рецензент других курсов
+     * в это время запускает проверки отдельных работ. Gateway сам относит частые запуски курса
+     * к фоновому классу, поэтому задержка "analyze-interactive" не должна расти вместе с "analyze-bulk".
+     * Обе роли работают всю длительность сценария; отказ 429 фоновая проверка выжидает
+     * по Retry-After и повторяет для той же работы, чтобы нагрузка доходила до планировщика анализа.
+     */
+    BULK_CROSS_CHECK("bulk-cross-check") {
+        private static final long REVIEWER_PAUSE_MILLIS = 2000;
+
+        @Override
+        long run(ScenarioContext context, LatencyRecorder recorder) throws Exception {
+            context.ensureUploaded();
+            String bulkAssignment = context.getAssignment(context.getUploaded().get(0));
+            context.ensureUploaded(bulkAssignment, context.getWorks());
+            List<Long> bulk = context.getUploaded(bulkAssignment, true);
+            List<Long> others = context.getUploaded(bulkAssignment, false);
+            List<Long> reviewed = others.isEmpty() ? bulk : others;
+            AtomicInteger next = new AtomicInteger();
+            AtomicInteger roles = new AtomicInteger();
+            ThreadLocal<Boolean> reviewer = ThreadLocal.withInitial(() -> roles.getAndIncrement() == 0);
+            return context.runUsers(() -> {
+                if (reviewer.get()) {
+                    long workId = reviewed.get(ThreadLocalRandom.current().nextInt(reviewed.size()));
+                    recorder.time("analyze-interactive", () -> context.getClient().analyze(workId));
+                    Thread.sleep(REVIEWER_PAUSE_MILLIS);
+                    return true;
+                }
+                // Работы курса перебираются по кругу, пока не истечет время сценария
+                long workId = bulk.get(Math.floorMod(next.getAndIncrement(), bulk.size()));
+                context.retryThrottled(() -> recorder.time("analyze-bulk", () -> context.getClient().analyze(workId)));
+                return true;
+            });
+        }
+    };
+
+    private final String name;
+
+    Scenario(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Выполняет сценарий и возвращает длительность нагрузочной фазы в наносекундах
+     * (без подготовки данных).
+     */
+    abstract long run(ScenarioContext context, LatencyRecorder recorder) throws Exception;
+
+    public static Scenario fromName(String name) {
+        for (Scenario scenario : values()) {
+            if (scenario.name.equals(name)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный сценарий: " + name);
+    }
+}
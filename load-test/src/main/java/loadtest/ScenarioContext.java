@@ -0,0 +1,165 @@
+package loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Общее состояние между сценариями: клиент, корпус и ID уже загруженных работ.
+ */
+public class ScenarioContext {
+
+    private static final int WARMUP_WORKS = 50;
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final GatewayClient client;
+    private final CorpusGenerator corpus;
+    private final int users;
+    private final int durationSeconds;
+    private final int works;
+    private final List<Long> uploadedWorkIds = new ArrayList<>();
+    private final Map<Long, String> assignments = new HashMap<>();
+
+    public ScenarioContext(GatewayClient client, CorpusGenerator corpus, int users, int durationSeconds,
+                           int works) {
+        this.client = client;
+        this.corpus = corpus;
+        this.users = users;
+        this.durationSeconds = durationSeconds;
+        this.works = works;
+    }
+
+    public GatewayClient getClient() {
+        return client;
+    }
+
+    public CorpusGenerator getCorpus() {
+        return corpus;
+    }
+
+    public int getWorks() {
+        return works;
+    }
+
+    public synchronized void addUploaded(long workId, String assignmentName) {
+        uploadedWorkIds.add(workId);
+        assignments.put(workId, assignmentName);
+    }
+
+    public synchronized List<Long> getUploaded() {
+        return List.copyOf(uploadedWorkIds);
+    }
+
+    /** Загруженные работы задания ({@code matching = true}) или всех остальных заданий. */
+    public synchronized List<Long> getUploaded(String assignmentName, boolean matching) {
+        List<Long> result = new ArrayList<>();
+        for (Long workId : uploadedWorkIds) {
+            if (assignmentName.equals(assignments.get(workId)) == matching) {
+                result.add(workId);
+            }
+        }
+        return result;
+    }
+
+    public synchronized String getAssignment(long workId) {
+        return assignments.get(workId);
+    }
+
+    public synchronized int countUploaded(String assignmentName) {
+        return getUploaded(assignmentName, true).size();
+    }
+
+    public long randomUploaded() {
+        List<Long> ids = getUploaded();
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    /**
+     * Сценарии чтения требуют загруженных работ; если сценарий загрузки не запускался,
+     * загружаем небольшой набор без записи латентности.
+     */
+    public void ensureUploaded() throws Exception {
+        if (!getUploaded().isEmpty()) {
+            return;
+        }
+        System.out.println("Подготовка: загрузка " + WARMUP_WORKS + " работ");
+        for (int i = 0; i < WARMUP_WORKS; i++) {
+            upload(corpus.next());
+        }
+        if (getUploaded().isEmpty()) {
+            throw new IllegalStateException("Не удалось загрузить ни одной работы, проверьте, что стенд запущен");
+        }
+    }
+
+    /**
+     * Догружает работы задания, пока их не станет {@code count}, без записи латентности.
+     */
+    public void ensureUploaded(String assignmentName, int count) throws Exception {
+        int missing = count - countUploaded(assignmentName);
+        if (missing <= 0) {
+            return;
+        }
+        System.out.println("Подготовка: загрузка " + missing + " работ задания " + assignmentName);
+        for (int i = 0; i < missing; i++) {
+            upload(corpus.next(assignmentName));
+        }
+    }
+
+    /**
+     * Повторяет вызов, пока gateway отвечает 429, выжидая Retry-After.
+     */
+    public GatewayClient.Result retryThrottled(LatencyRecorder.Call call) throws Exception {
+        GatewayClient.Result result = call.execute();
+        while (result.status() == TOO_MANY_REQUESTS) {
+            Thread.sleep(result.retryAfterMillis());
+            result = call.execute();
+        }
+        return result;
+    }
+
+    // Gateway ограничивает загрузки курса; подготовка просто ждет
+    private void upload(CorpusGenerator.SyntheticWork work) throws Exception {
+        GatewayClient.Result result = retryThrottled(() -> client.upload(work));
+        if (result.workId() != null) {
+            addUploaded(result.workId(), work.assignmentName());
+        }
+    }
+
+    /**
+     * Запускает {@code users} виртуальных потоков, каждый выполняет {@code action} в цикле,
+     * пока он возвращает true и не истекло время сценария. Возвращает фактическую длительность.
+     */
+    public long runUsers(UserAction action) throws InterruptedException {
+        long started = System.nanoTime();
+        long deadline = started + durationSeconds * 1_000_000_000L;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < users; user++) {
+                executor.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            if (!action.run()) {
+                                return;
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            // ошибка уже учтена в LatencyRecorder
+                        }
+                    }
+                });
+            }
+        }
+        return System.nanoTime() - started;
+    }
+
+    @FunctionalInterface
+    public interface UserAction {
+        boolean run() throws Exception;
+    }
+}
@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# Время от запуска контейнера до первого ответа на HTTP-запрос для каждого сервиса.
+# Запускать из корня репозитория после `docker compose build`.
+set -euo pipefail
+
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+# сервис compose и дешевый запрос, на который он отвечает после готовности
+SERVICES=(
+  "file-storing http://localhost:8081/files/0"
+  "file-analysis http://localhost:8082/reports/0"
+  "gateway http://localhost:8080/api-docs"
+)
+
+docker compose up -d postgres >/dev/null
+
+now_ms() {
+  date +%s%3N
+}
+
+printf "%-15s %s\n" "service" "time-to-first-request, ms"
+for entry in "${SERVICES[@]}"; do
+  service=${entry%% *}
+  url=${entry#* }
+
+  docker compose stop "$service" >/dev/null 2>&1 || true
+  started=$(now_ms)
+  docker compose up -d --no-deps "$service" >/dev/null
+
+  deadline=$((started + TIMEOUT_SECONDS * 1000))
+  status=000
+  while [ "$status" = "000" ]; do
+    if [ "$(now_ms)" -gt "$deadline" ]; then
+      echo "$service не ответил за ${TIMEOUT_SECONDS} с" >&2
+      exit 1
+    fi
+    sleep 0.05
+    status=$(curl -s -o /dev/null -w '%{http_code}' "$url" || true)
+  done
+
+  printf "%-15s %d (HTTP %s)\n" "$service" $(($(now_ms) - started)) "$status"
+done
@@ -1,58 +0,0 @@
-package filestoring.contoller;
-
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.multipart.MultipartFile;
-
-import filestoring.entity.Work;
-import filestoring.service.FileStorageService;
-
-@RestController
-@RequestMapping("/files")
-public class FileStoringController {
-    
-    private final FileStorageService fileStorageService;
-    
-    public FileStoringController(FileStorageService fileStorageService) {
-        this.fileStorageService = fileStorageService;
-    }
-
-    @PostMapping
-    public ResponseEntity<Work> uploadFile(
-            @RequestParam("file") MultipartFile file,
-            @RequestParam("studentName") String studentName,
-            @RequestParam("assignmentName") String assignmentName) {
-        try {
-            Work work = fileStorageService.saveFile(file, studentName, assignmentName);
-            return ResponseEntity.ok(work);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).build();
-        }
-    }
-
-    @GetMapping("/{id}")
-    public ResponseEntity<Resource> getFile(@PathVariable Long id) {
-        try {
-            Resource resource = fileStorageService.getFile(id);
-            
-            String filename = resource.getFilename();
-            if (filename == null) {
-                filename = "file_" + id;
-            }
-            
-            return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .body(resource);
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
-    }
-
-}